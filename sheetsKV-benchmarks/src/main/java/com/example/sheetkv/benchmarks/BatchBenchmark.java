@@ -0,0 +1,74 @@
+package com.example.sheetkv.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.example.sheetkv.config.IndexProperties.KeyTableType;
+import com.example.sheetkv.model.BatchGetResult;
+import com.example.sheetkv.model.BatchUpsertResult;
+import com.example.sheetkv.model.KeyValueEntry;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BatchBenchmark {
+    @Param({ "10000" })
+    public int keys;
+
+    @Param({ "10", "100" })
+    public int batchSize;
+
+    @Param({ "0", "5" })
+    public long latencyMs;
+
+    private BenchmarkFixture fixture;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        fixture = new BenchmarkFixture(keys, KeyTableType.HASH);
+        fixture.setLatency(latencyMs);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        fixture.close();
+    }
+
+    @Benchmark
+    public BatchGetResult batchGet() {
+        List<String> ids = new ArrayList<>(batchSize);
+        for (int i = 0; i < batchSize; i++) {
+            ids.add(BenchmarkFixture.key(ThreadLocalRandom.current().nextInt(keys)));
+        }
+        return fixture.kvService.batchGet(BenchmarkFixture.COLLECTION, ids);
+    }
+
+    @Benchmark
+    public BatchUpsertResult batchUpsert() {
+        List<KeyValueEntry> items = new ArrayList<>(batchSize);
+        for (int i = 0; i < batchSize; i++) {
+            int index = ThreadLocalRandom.current().nextInt(keys);
+            items.add(new KeyValueEntry(BenchmarkFixture.key(index), "updated-" + index));
+        }
+        return fixture.kvService.batchUpsert(BenchmarkFixture.COLLECTION, items);
+    }
+}
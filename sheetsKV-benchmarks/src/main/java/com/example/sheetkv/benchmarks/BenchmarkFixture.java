@@ -0,0 +1,92 @@
+package com.example.sheetkv.benchmarks;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.example.sheetkv.adapter.CellRange;
+import com.example.sheetkv.adapter.LocalSheetBackend;
+import com.example.sheetkv.adapter.QuotaScheduler;
+import com.example.sheetkv.config.CacheProperties;
+import com.example.sheetkv.config.DeleteProperties;
+import com.example.sheetkv.config.IndexProperties;
+import com.example.sheetkv.config.IndexProperties.KeyTableType;
+import com.example.sheetkv.config.LocalBackendProperties;
+import com.example.sheetkv.config.QuotaProperties;
+import com.example.sheetkv.config.ReadProperties;
+import com.example.sheetkv.config.RowTrackingProperties;
+import com.example.sheetkv.config.WriteBehindProperties;
+import com.example.sheetkv.service.CellReader;
+import com.example.sheetkv.service.CollectionLocks;
+import com.example.sheetkv.service.IndexStore;
+import com.example.sheetkv.service.KeyLocks;
+import com.example.sheetkv.service.KvService;
+import com.example.sheetkv.service.RowAllocator;
+import com.example.sheetkv.service.SyncService;
+import com.example.sheetkv.service.ValueCache;
+import com.example.sheetkv.service.WriteBuffer;
+
+/**
+ * Core services wired by hand against the local backend, with one collection pre-filled with
+ * {@code keys} rows and the index built by a flush.
+ */
+final class BenchmarkFixture {
+    static final String COLLECTION = "bench";
+    private static final int POPULATE_CHUNK = 10_000;
+
+    final LocalBackendProperties backendProperties = new LocalBackendProperties();
+    final LocalSheetBackend backend;
+    final IndexStore indexStore;
+    final WriteBuffer writeBuffer;
+    final SyncService syncService;
+    final KvService kvService;
+
+    BenchmarkFixture(int keys, KeyTableType keyTable) {
+        QuotaProperties quotaProperties = new QuotaProperties();
+        quotaProperties.setEnabled(false);
+        backend = new LocalSheetBackend(backendProperties, new QuotaScheduler(quotaProperties));
+        backend.createSheet(COLLECTION);
+        populate(keys);
+
+        IndexProperties indexProperties = new IndexProperties();
+        indexProperties.setKeyTable(keyTable);
+        indexStore = new IndexStore(indexProperties);
+        RowAllocator rowAllocator = new RowAllocator(backend, new RowTrackingProperties());
+        CollectionLocks collectionLocks = new CollectionLocks();
+        writeBuffer = new WriteBuffer(backend, indexStore, rowAllocator, collectionLocks, new WriteBehindProperties());
+        ValueCache valueCache = new ValueCache(new CacheProperties());
+        DeleteProperties deleteProperties = new DeleteProperties();
+        ReadProperties readProperties = new ReadProperties();
+        readProperties.setBatchWindow(Duration.ZERO);
+        syncService = new SyncService(backend, indexStore, writeBuffer, valueCache, rowAllocator, deleteProperties,
+                collectionLocks, indexProperties);
+        kvService = new KvService(backend, indexStore, writeBuffer, valueCache, rowAllocator, collectionLocks,
+                deleteProperties, new CellReader(backend, readProperties), new KeyLocks());
+        syncService.flush();
+    }
+
+    void setLatency(long latencyMs) {
+        backendProperties.setReadLatency(Duration.ofMillis(latencyMs));
+        backendProperties.setWriteLatency(Duration.ofMillis(latencyMs));
+    }
+
+    void close() {
+        syncService.shutdown();
+        writeBuffer.shutdown();
+    }
+
+    static String key(int index) {
+        return "key-" + index;
+    }
+
+    private void populate(int keys) {
+        for (int start = 0; start < keys; start += POPULATE_CHUNK) {
+            int end = Math.min(keys, start + POPULATE_CHUNK);
+            List<List<String>> values = new ArrayList<>(end - start);
+            for (int i = start; i < end; i++) {
+                values.add(List.of(key(i), "value-" + i));
+            }
+            backend.batchUpdateValues(List.of(CellRange.rows(COLLECTION, start + 1, values)));
+        }
+    }
+}
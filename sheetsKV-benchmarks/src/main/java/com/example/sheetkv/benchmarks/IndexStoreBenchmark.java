@@ -0,0 +1,87 @@
+package com.example.sheetkv.benchmarks;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.example.sheetkv.config.IndexProperties;
+import com.example.sheetkv.config.IndexProperties.KeyTableType;
+import com.example.sheetkv.service.IndexStore;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IndexStoreBenchmark {
+    private static final String COLLECTION = BenchmarkFixture.COLLECTION;
+
+    @Param({ "10000", "100000", "1000000" })
+    public int keys;
+
+    @Param({ "HASH", "COMPACT" })
+    public KeyTableType keyTable;
+
+    private IndexStore indexStore;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        IndexProperties properties = new IndexProperties();
+        properties.setKeyTable(keyTable);
+        indexStore = new IndexStore(properties);
+        Map<String, Integer> rows = new HashMap<>(keys * 2);
+        for (int i = 0; i < keys; i++) {
+            rows.put(BenchmarkFixture.key(i), i + 1);
+        }
+        indexStore.rebuild(Map.of(COLLECTION, rows));
+    }
+
+    @Benchmark
+    public Integer getRow() {
+        return indexStore.getRow(COLLECTION, randomKey());
+    }
+
+    @Benchmark
+    public void put() {
+        int index = ThreadLocalRandom.current().nextInt(keys);
+        indexStore.put(COLLECTION, BenchmarkFixture.key(index), index + 1);
+    }
+
+    @Benchmark
+    public List<Map.Entry<String, Integer>> pageMiddle() {
+        return indexStore.page(COLLECTION, keys / 2, 100);
+    }
+
+    /**
+     * Physical delete of a random key followed by re-appending it, so the collection keeps its
+     * size across invocations.
+     */
+    @Benchmark
+    public void adjustAfterDelete() {
+        String id = randomKey();
+        Integer row = indexStore.getRow(COLLECTION, id);
+        indexStore.remove(COLLECTION, id);
+        indexStore.adjustAfterDelete(COLLECTION, row);
+        indexStore.put(COLLECTION, id, keys);
+    }
+
+    private String randomKey() {
+        return BenchmarkFixture.key(ThreadLocalRandom.current().nextInt(keys));
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.sheetkv.benchmarks;
+
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.example.sheetkv.config.IndexProperties;
+import com.example.sheetkv.config.IndexProperties.KeyTableType;
+import com.example.sheetkv.service.IndexStore;
+
+/**
+ * Prints the heap and direct memory retained by an index of each key table type, one JSON
+ * object per line. Keys are generated per run so the index is the only owner of them.
+ * Usage: {@code KeyTableFootprint [keys...]}, default 1000000.
+ */
+public final class KeyTableFootprint {
+    private KeyTableFootprint() {
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        int[] sizes = args.length == 0 ? new int[] { 1_000_000 } : new int[args.length];
+        for (int i = 0; i < args.length; i++) {
+            sizes[i] = Integer.parseInt(args[i]);
+        }
+        for (int keys : sizes) {
+            for (KeyTableType type : KeyTableType.values()) {
+                IndexProperties properties = new IndexProperties();
+                properties.setKeyTable(type);
+                long heapBefore = usedHeap();
+                long directBefore = usedDirect();
+                IndexStore indexStore = new IndexStore(properties);
+                indexStore.rebuild(Map.of(BenchmarkFixture.COLLECTION, rows(keys)));
+                long heapAfter = usedHeap();
+                long directAfter = usedDirect();
+                System.out.printf("{\"keyTable\":\"%s\",\"keys\":%d,\"heapBytes\":%d,\"directBytes\":%d,\"size\":%d}%n",
+                        type, keys, heapAfter - heapBefore, directAfter - directBefore,
+                        indexStore.size(BenchmarkFixture.COLLECTION));
+            }
+        }
+    }
+
+    private static Map<String, Integer> rows(int keys) {
+        Map<String, Integer> rows = new HashMap<>(keys * 2);
+        for (int i = 0; i < keys; i++) {
+            rows.put(BenchmarkFixture.key(i), i + 1);
+        }
+        return rows;
+    }
+
+    private static long usedHeap() throws InterruptedException {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(100);
+        }
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static long usedDirect() {
+        return ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class).stream()
+                .filter(pool -> pool.getName().equals("direct"))
+                .mapToLong(BufferPoolMXBean::getMemoryUsed)
+                .sum();
+    }
+}
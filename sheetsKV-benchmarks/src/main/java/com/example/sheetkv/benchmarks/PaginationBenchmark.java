@@ -0,0 +1,69 @@
+package com.example.sheetkv.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.example.sheetkv.config.IndexProperties.KeyTableType;
+import com.example.sheetkv.model.KeyValueEntry;
+import com.example.sheetkv.model.PageResult;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PaginationBenchmark {
+    private static final int LIMIT = 100;
+
+    @Param({ "100000" })
+    public int keys;
+
+    @Param({ "0.0", "0.5", "0.99" })
+    public double position;
+
+    private BenchmarkFixture fixture;
+    private int offset;
+    private String cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        fixture = new BenchmarkFixture(keys, KeyTableType.HASH);
+        offset = (int) (keys * position);
+        cursor = offset < LIMIT ? null
+                : fixture.kvService.listKeys(BenchmarkFixture.COLLECTION, LIMIT, offset - LIMIT).nextCursor();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        fixture.close();
+    }
+
+    @Benchmark
+    public PageResult<String> listKeys() {
+        return fixture.kvService.listKeys(BenchmarkFixture.COLLECTION, LIMIT, offset);
+    }
+
+    @Benchmark
+    public PageResult<String> listKeysFromCursor() {
+        return fixture.kvService.listKeys(BenchmarkFixture.COLLECTION, LIMIT, cursor);
+    }
+
+    @Benchmark
+    public PageResult<KeyValueEntry> listEntries() {
+        return fixture.kvService.listEntries(BenchmarkFixture.COLLECTION, LIMIT, offset);
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.sheetkv.adapter;
+
+import java.util.List;
+
+/**
+ * Values for a block of cells of one sheet, starting at {@code row} (1-based) and
+ * {@code column} (0 is column A).
+ */
+public record CellRange(String sheetName, int row, int column, List<List<String>> values) {
+    /** The value cell (column B) of one row. */
+    public static CellRange value(String sheetName, int row, String value) {
+        return new CellRange(sheetName, row, 1, List.of(List.of(value)));
+    }
+
+    /** Whole id/value rows (columns A and B) starting at {@code row}. */
+    public static CellRange rows(String sheetName, int row, List<List<String>> values) {
+        return new CellRange(sheetName, row, 0, values);
+    }
+}
@@ -0,0 +1,504 @@
+package com.example.sheetkv.adapter;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.example.sheetkv.config.LocalBackendProperties;
+import com.example.sheetkv.exception.BackendException;
+import com.google.api.client.http.HttpHeaders;
+import com.google.api.client.http.HttpResponseException;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * In-process stand-in for a spreadsheet with two-column sheets. It follows the Sheets API
+ * conventions the service relies on (1-based rows, trailing blank rows not returned, grid
+ * row counts) and can inject latency, per-minute quota limits and server errors so the
+ * service can be benchmarked and load-tested without credentials.
+ */
+@Component
+@ConditionalOnProperty(prefix = "sheet", name = "backend", havingValue = "local")
+public class LocalSheetBackend implements SheetBackend {
+    private static final Logger logger = LoggerFactory.getLogger(LocalSheetBackend.class);
+    private static final String METADATA = "*";
+    private static final int COLUMNS = 26;
+
+    private final LocalBackendProperties properties;
+    private final QuotaScheduler quota;
+    private final Map<String, LocalSheet> sheets = new LinkedHashMap<>();
+    private int nextSheetId = 1;
+    private long quotaWindowStart = System.nanoTime();
+    private int readsInWindow;
+    private int writesInWindow;
+
+    public LocalSheetBackend(LocalBackendProperties properties, QuotaScheduler quota) {
+        this.properties = properties;
+        this.quota = quota;
+        load();
+    }
+
+    @Override
+    public List<SheetInfo> getSheetInfos() {
+        return read(METADATA, () -> sheets.values().stream()
+                .map(sheet -> new SheetInfo(sheet.sheetId, sheet.title, sheet.gridRows, COLUMNS))
+                .toList());
+    }
+
+    @Override
+    public List<SheetInfo> refreshMetadata() {
+        return getSheetInfos();
+    }
+
+    @Override
+    public List<String> readColumnA(String sheetName) {
+        return read(sheetName, () -> {
+            LocalSheet sheet = sheet(sheetName);
+            int last = sheet.lastRow(0);
+            List<String> ids = new ArrayList<>(last);
+            for (int row = 1; row <= last; row++) {
+                ids.add(blankToEmpty(sheet.get(row, 0)));
+            }
+            return ids;
+        });
+    }
+
+    @Override
+    public Map<String, List<String>> readColumnA(Map<String, int[]> rangesBySheet) {
+        return read(METADATA, () -> {
+            Map<String, List<String>> result = new HashMap<>();
+            rangesBySheet.forEach((sheetName, range) -> {
+                LocalSheet sheet = sheet(sheetName);
+                List<String> ids = new ArrayList<>();
+                for (int row = range[0]; row <= range[1]; row++) {
+                    ids.add(blankToEmpty(sheet.get(row, 0)));
+                }
+                result.put(sheetName, ids);
+            });
+            return result;
+        });
+    }
+
+    @Override
+    public String readCell(String sheetName, int row) {
+        return read(sheetName, () -> sheet(sheetName).get(row, 1));
+    }
+
+    @Override
+    public Map<Integer, String> readCells(String sheetName, Collection<Integer> rows) {
+        return read(sheetName, () -> {
+            LocalSheet sheet = sheet(sheetName);
+            Map<Integer, String> result = new HashMap<>();
+            for (int row : rows) {
+                String value = sheet.get(row, 1);
+                if (value != null) {
+                    result.put(row, value);
+                }
+            }
+            return result;
+        });
+    }
+
+    @Override
+    public Map<Integer, SheetRow> readRows(String sheetName, Collection<Integer> rows) {
+        return read(sheetName, () -> {
+            LocalSheet sheet = sheet(sheetName);
+            int last = sheet.lastRow(-1);
+            Map<Integer, SheetRow> result = new HashMap<>();
+            for (int row : rows) {
+                if (row >= 1 && row <= last) {
+                    result.put(row, new SheetRow(row, sheet.get(row, 0), sheet.get(row, 1)));
+                }
+            }
+            return result;
+        });
+    }
+
+    @Override
+    public List<SheetRow> readSheetRows(String sheetName) {
+        return read(sheetName, () -> {
+            LocalSheet sheet = sheet(sheetName);
+            int last = sheet.lastRow(-1);
+            List<SheetRow> rows = new ArrayList<>(last);
+            for (int row = 1; row <= last; row++) {
+                rows.add(new SheetRow(row, sheet.get(row, 0), sheet.get(row, 1)));
+            }
+            return rows;
+        });
+    }
+
+    @Override
+    public boolean isColumnAEmpty(String sheetName, int startRow, int endRow) {
+        return read(sheetName, () -> {
+            LocalSheet sheet = sheet(sheetName);
+            for (int row = startRow; row <= endRow; row++) {
+                if (sheet.get(row, 0) != null) {
+                    return false;
+                }
+            }
+            return true;
+        });
+    }
+
+    @Override
+    public int nextRow(String sheetName) {
+        return read(sheetName, () -> sheet(sheetName).lastRow(0) + 1);
+    }
+
+    @Override
+    public void updateCell(String sheetName, int row, String value) {
+        write(sheetName, () -> sheet(sheetName).set(row, 1, value));
+    }
+
+    @Override
+    public void writeRow(String sheetName, int row, String id, String value) {
+        write(sheetName, () -> {
+            LocalSheet sheet = sheet(sheetName);
+            sheet.set(row, 0, id);
+            sheet.set(row, 1, value);
+        });
+    }
+
+    @Override
+    public void batchUpdateValues(List<CellRange> data) {
+        if (data.isEmpty()) {
+            return;
+        }
+        write(data.get(0).sheetName(), () -> {
+            for (CellRange range : data) {
+                LocalSheet sheet = sheet(range.sheetName());
+                List<List<String>> values = range.values();
+                for (int i = 0; i < values.size(); i++) {
+                    List<String> cells = values.get(i);
+                    for (int j = 0; j < cells.size(); j++) {
+                        sheet.set(range.row() + i, range.column() + j, cells.get(j));
+                    }
+                }
+            }
+        });
+    }
+
+    @Override
+    public void clearRows(String sheetName, Collection<Integer> rows) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        write(sheetName, () -> {
+            LocalSheet sheet = sheet(sheetName);
+            for (int row : rows) {
+                sheet.set(row, 0, null);
+                sheet.set(row, 1, null);
+            }
+        });
+    }
+
+    @Override
+    public void deleteRow(String sheetName, int row) {
+        deleteRows(sheetName, List.of(row));
+    }
+
+    @Override
+    public void deleteRows(String sheetName, Collection<Integer> rows) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        writeOnce(sheetName, () -> sheet(sheetName).delete(rows));
+    }
+
+    @Override
+    public void applyRowChanges(String sheetName, List<SheetRow> writes, Collection<Integer> clearedRows,
+            Collection<Integer> deletedRows) {
+        if (writes.isEmpty() && clearedRows.isEmpty() && deletedRows.isEmpty()) {
+            return;
+        }
+        writeOnce(sheetName, () -> {
+            LocalSheet sheet = sheet(sheetName);
+            for (SheetRow row : writes) {
+                sheet.set(row.row(), 0, row.id());
+                sheet.set(row.row(), 1, row.value());
+            }
+            for (int row : clearedRows) {
+                sheet.set(row, 0, null);
+                sheet.set(row, 1, null);
+            }
+            sheet.delete(deletedRows);
+        });
+    }
+
+    @Override
+    public void createSheet(String name) {
+        writeOnce(name, () -> {
+            if (sheets.containsKey(name)) {
+                throw new BackendException("Failed to create sheet");
+            }
+            sheets.put(name, new LocalSheet(nextSheetId++, name, properties.getGridRows()));
+        });
+    }
+
+    @Override
+    public void deleteSheet(String name) {
+        writeOnce(name, () -> {
+            if (sheets.remove(name) == null) {
+                throw new BackendException("Sheet not found: " + name);
+            }
+        });
+    }
+
+    @Override
+    public void renameSheet(String oldName, String newName) {
+        writeOnce(oldName, () -> {
+            if (sheets.containsKey(newName)) {
+                throw new BackendException("Failed to rename sheet");
+            }
+            LocalSheet sheet = sheets.remove(oldName);
+            if (sheet == null) {
+                throw new BackendException("Sheet not found: " + oldName);
+            }
+            sheet.title = newName;
+            sheets.put(newName, sheet);
+        });
+    }
+
+    @PreDestroy
+    public synchronized void save() {
+        if (properties.getDataPath() == null || properties.getDataPath().isBlank()) {
+            return;
+        }
+        Path path = Path.of(properties.getDataPath());
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try {
+            Path parent = path.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                out.writeInt(nextSheetId);
+                out.writeInt(sheets.size());
+                for (LocalSheet sheet : sheets.values()) {
+                    writeString(out, sheet.title);
+                    out.writeInt(sheet.sheetId);
+                    out.writeInt(sheet.gridRows);
+                    out.writeInt(sheet.rows.size());
+                    for (String[] row : sheet.rows) {
+                        writeString(out, row[0]);
+                        writeString(out, row[1]);
+                    }
+                }
+            }
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            logger.info("local.saved path={} sheets={}", path, sheets.size());
+        } catch (IOException ex) {
+            logger.error("local.save failed path={}", path, ex);
+        }
+    }
+
+    private synchronized void load() {
+        if (properties.getDataPath() == null || properties.getDataPath().isBlank()) {
+            return;
+        }
+        Path path = Path.of(properties.getDataPath());
+        if (!Files.exists(path)) {
+            return;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            nextSheetId = in.readInt();
+            int sheetCount = in.readInt();
+            for (int i = 0; i < sheetCount; i++) {
+                String title = readString(in);
+                LocalSheet sheet = new LocalSheet(in.readInt(), title, in.readInt());
+                int rowCount = in.readInt();
+                for (int j = 0; j < rowCount; j++) {
+                    sheet.rows.add(new String[] { readString(in), readString(in) });
+                }
+                sheets.put(title, sheet);
+            }
+            logger.info("local.loaded path={} sheets={}", path, sheets.size());
+        } catch (IOException ex) {
+            throw new BackendException("Failed to load local sheet data from " + path, ex);
+        }
+    }
+
+    private <T> T read(String sheetName, Supplier<T> operation) {
+        try {
+            return quota.read(sheetName, () -> {
+                simulate(false);
+                synchronized (this) {
+                    return operation.get();
+                }
+            });
+        } catch (IOException ex) {
+            logger.error("local.read failed sheet={}", sheetName, ex);
+            throw new BackendException("Failed to read from local backend", ex);
+        }
+    }
+
+    private void write(String sheetName, Runnable operation) {
+        write(sheetName, operation, true);
+    }
+
+    /** Row and sheet structure changes, retried like their Sheets counterparts only on {@code 429}. */
+    private void writeOnce(String sheetName, Runnable operation) {
+        write(sheetName, operation, false);
+    }
+
+    private void write(String sheetName, Runnable operation, boolean idempotent) {
+        QuotaScheduler.SheetsCall<Void> call = () -> {
+            simulate(true);
+            synchronized (this) {
+                operation.run();
+            }
+            return null;
+        };
+        try {
+            if (idempotent) {
+                quota.write(sheetName, call);
+            } else {
+                quota.writeOnce(sheetName, call);
+            }
+        } catch (IOException ex) {
+            logger.error("local.write failed sheet={}", sheetName, ex);
+            throw new BackendException("Failed to write to local backend", ex);
+        }
+    }
+
+    private void simulate(boolean write) throws IOException {
+        long latencyMs = (write ? properties.getWriteLatency() : properties.getReadLatency()).toMillis();
+        long jitterMs = properties.getLatencyJitter().toMillis();
+        if (jitterMs > 0) {
+            latencyMs += ThreadLocalRandom.current().nextLong(jitterMs + 1);
+        }
+        if (latencyMs > 0) {
+            try {
+                Thread.sleep(latencyMs);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new BackendException("Interrupted", ex);
+            }
+        }
+        if (properties.getErrorRate() > 0 && ThreadLocalRandom.current().nextDouble() < properties.getErrorRate()) {
+            throw new HttpResponseException.Builder(503, "Service Unavailable", new HttpHeaders()).build();
+        }
+        if (overQuota(write)) {
+            throw new HttpResponseException.Builder(429, "Too Many Requests", new HttpHeaders()).build();
+        }
+    }
+
+    private synchronized boolean overQuota(boolean write) {
+        long now = System.nanoTime();
+        if (now - quotaWindowStart >= TimeUnit.MINUTES.toNanos(1)) {
+            quotaWindowStart = now;
+            readsInWindow = 0;
+            writesInWindow = 0;
+        }
+        if (write) {
+            return properties.getWritesPerMinute() > 0 && ++writesInWindow > properties.getWritesPerMinute();
+        }
+        return properties.getReadsPerMinute() > 0 && ++readsInWindow > properties.getReadsPerMinute();
+    }
+
+    private LocalSheet sheet(String name) {
+        LocalSheet sheet = sheets.get(name);
+        if (sheet == null) {
+            throw new BackendException("Sheet not found: " + name);
+        }
+        return sheet;
+    }
+
+    private static String blankToEmpty(String value) {
+        return value == null ? "" : value;
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static final class LocalSheet {
+        private final int sheetId;
+        private final List<String[]> rows = new ArrayList<>();
+        private String title;
+        private int gridRows;
+
+        private LocalSheet(int sheetId, String title, int gridRows) {
+            this.sheetId = sheetId;
+            this.title = title;
+            this.gridRows = gridRows;
+        }
+
+        private String get(int row, int column) {
+            if (row < 1 || row > rows.size()) {
+                return null;
+            }
+            return rows.get(row - 1)[column];
+        }
+
+        private void set(int row, int column, String value) {
+            if (row < 1 || column < 0 || column > 1) {
+                return;
+            }
+            String stored = value == null || value.isEmpty() ? null : value;
+            while (rows.size() < row) {
+                rows.add(new String[2]);
+            }
+            rows.get(row - 1)[column] = stored;
+            gridRows = Math.max(gridRows, row);
+        }
+
+        private void delete(Collection<Integer> deleted) {
+            int[] sorted = deleted.stream().mapToInt(Integer::intValue).filter(row -> row > 0).sorted().distinct().toArray();
+            for (int i = sorted.length - 1; i >= 0; i--) {
+                if (sorted[i] <= rows.size()) {
+                    rows.remove(sorted[i] - 1);
+                }
+                if (sorted[i] <= gridRows) {
+                    gridRows--;
+                }
+            }
+        }
+
+        private int lastRow(int column) {
+            for (int row = rows.size(); row >= 1; row--) {
+                String[] cells = rows.get(row - 1);
+                if (column < 0 ? cells[0] != null || cells[1] != null : cells[column] != null) {
+                    return row;
+                }
+            }
+            return 0;
+        }
+    }
+}
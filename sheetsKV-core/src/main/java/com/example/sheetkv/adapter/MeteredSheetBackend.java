@@ -0,0 +1,203 @@
+package com.example.sheetkv.adapter;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+
+/**
+ * Wraps a backend with one {@code sheetkv.backend} observation per call, tagged by method,
+ * collection and outcome, and counts the cells each call reads or writes in
+ * {@code sheetkv.backend.cells}. Observations become timers, and spans when tracing is present.
+ */
+public class MeteredSheetBackend implements SheetBackend {
+    private static final String METADATA = "*";
+    private static final String ALL = "all";
+
+    private final SheetBackend delegate;
+    private final ObservationRegistry observations;
+    private final MeterRegistry meters;
+    private final boolean collectionTags;
+    private final Map<CellsKey, Counter> counters = new ConcurrentHashMap<>();
+
+    public MeteredSheetBackend(SheetBackend delegate, ObservationRegistry observations, MeterRegistry meters,
+            boolean collectionTags) {
+        this.delegate = delegate;
+        this.observations = observations;
+        this.meters = meters;
+        this.collectionTags = collectionTags;
+    }
+
+    @Override
+    public List<SheetInfo> getSheetInfos() {
+        return observe("getSheetInfos", METADATA, delegate::getSheetInfos, null);
+    }
+
+    @Override
+    public List<SheetInfo> refreshMetadata() {
+        return observe("refreshMetadata", METADATA, delegate::refreshMetadata, null);
+    }
+
+    @Override
+    public List<String> readColumnA(String sheetName) {
+        return observe("readColumnA", sheetName, () -> delegate.readColumnA(sheetName), List::size);
+    }
+
+    @Override
+    public Map<String, List<String>> readColumnA(Map<String, int[]> rangesBySheet) {
+        String collection = rangesBySheet.size() == 1 ? rangesBySheet.keySet().iterator().next() : METADATA;
+        return observe("readColumnAs", collection, () -> delegate.readColumnA(rangesBySheet),
+                result -> result.values().stream().mapToLong(List::size).sum());
+    }
+
+    @Override
+    public String readCell(String sheetName, int row) {
+        return observe("readCell", sheetName, () -> delegate.readCell(sheetName, row),
+                value -> value == null ? 0 : 1);
+    }
+
+    @Override
+    public Map<Integer, String> readCells(String sheetName, Collection<Integer> rows) {
+        return observe("readCells", sheetName, () -> delegate.readCells(sheetName, rows), Map::size);
+    }
+
+    @Override
+    public Map<Integer, SheetRow> readRows(String sheetName, Collection<Integer> rows) {
+        return observe("readRows", sheetName, () -> delegate.readRows(sheetName, rows),
+                result -> 2L * result.size());
+    }
+
+    @Override
+    public List<SheetRow> readSheetRows(String sheetName) {
+        return observe("readSheetRows", sheetName, () -> delegate.readSheetRows(sheetName),
+                result -> 2L * result.size());
+    }
+
+    @Override
+    public boolean isColumnAEmpty(String sheetName, int startRow, int endRow) {
+        return observe("isColumnAEmpty", sheetName, () -> delegate.isColumnAEmpty(sheetName, startRow, endRow),
+                empty -> Math.max(0, endRow - startRow + 1));
+    }
+
+    @Override
+    public int nextRow(String sheetName) {
+        return observe("nextRow", sheetName, () -> delegate.nextRow(sheetName), null);
+    }
+
+    @Override
+    public void updateCell(String sheetName, int row, String value) {
+        run("updateCell", sheetName, 1, () -> delegate.updateCell(sheetName, row, value));
+    }
+
+    @Override
+    public void writeRow(String sheetName, int row, String id, String value) {
+        run("writeRow", sheetName, 2, () -> delegate.writeRow(sheetName, row, id, value));
+    }
+
+    @Override
+    public void batchUpdateValues(List<CellRange> data) {
+        String collection = METADATA;
+        long cells = 0;
+        for (CellRange range : data) {
+            String sheet = range.sheetName();
+            collection = collection.equals(METADATA) || collection.equals(sheet) ? sheet : METADATA;
+            for (List<String> row : range.values()) {
+                cells += row.size();
+            }
+        }
+        if (data.isEmpty()) {
+            collection = METADATA;
+        }
+        run("batchUpdateValues", collection, cells, () -> delegate.batchUpdateValues(data));
+    }
+
+    @Override
+    public void clearRows(String sheetName, Collection<Integer> rows) {
+        run("clearRows", sheetName, 2L * rows.size(), () -> delegate.clearRows(sheetName, rows));
+    }
+
+    @Override
+    public void deleteRow(String sheetName, int row) {
+        run("deleteRow", sheetName, 0, () -> delegate.deleteRow(sheetName, row));
+    }
+
+    @Override
+    public void deleteRows(String sheetName, Collection<Integer> rows) {
+        run("deleteRows", sheetName, 0, () -> delegate.deleteRows(sheetName, rows));
+    }
+
+    @Override
+    public void applyRowChanges(String sheetName, List<SheetRow> writes, Collection<Integer> clearedRows,
+            Collection<Integer> deletedRows) {
+        run("applyRowChanges", sheetName, 2L * (writes.size() + clearedRows.size()),
+                () -> delegate.applyRowChanges(sheetName, writes, clearedRows, deletedRows));
+    }
+
+    @Override
+    public void createSheet(String name) {
+        run("createSheet", name, 0, () -> delegate.createSheet(name));
+    }
+
+    @Override
+    public void deleteSheet(String name) {
+        run("deleteSheet", name, 0, () -> delegate.deleteSheet(name));
+    }
+
+    @Override
+    public void renameSheet(String oldName, String newName) {
+        run("renameSheet", oldName, 0, () -> delegate.renameSheet(oldName, newName));
+    }
+
+    private void run(String method, String collection, long cellsWritten, Runnable call) {
+        observe(method, collection, () -> {
+            call.run();
+            return null;
+        }, null);
+        if (cellsWritten > 0) {
+            cells(method, collection, "write").increment(cellsWritten);
+        }
+    }
+
+    private <T> T observe(String method, String collection, Supplier<T> call, ToLongFunction<T> cellsRead) {
+        Observation observation = Observation.createNotStarted("sheetkv.backend", observations)
+                .contextualName("sheets " + method)
+                .lowCardinalityKeyValue("method", method)
+                .lowCardinalityKeyValue("collection", collectionTags ? collection : ALL);
+        return observation.observe(() -> {
+            try {
+                T result = call.get();
+                observation.lowCardinalityKeyValue("outcome", "success");
+                if (cellsRead != null) {
+                    long cells = cellsRead.applyAsLong(result);
+                    if (cells > 0) {
+                        cells(method, collection, "read").increment(cells);
+                    }
+                }
+                return result;
+            } catch (RuntimeException ex) {
+                observation.lowCardinalityKeyValue("outcome", "error");
+                throw ex;
+            }
+        });
+    }
+
+    private Counter cells(String method, String collection, String direction) {
+        CellsKey key = new CellsKey(method, collectionTags ? collection : ALL, direction);
+        return counters.computeIfAbsent(key, ignored -> Counter.builder("sheetkv.backend.cells")
+                .description("Cells read from or written to the spreadsheet")
+                .tag("method", key.method())
+                .tag("collection", key.collection())
+                .tag("direction", key.direction())
+                .register(meters));
+    }
+
+    private record CellsKey(String method, String collection, String direction) {
+    }
+}
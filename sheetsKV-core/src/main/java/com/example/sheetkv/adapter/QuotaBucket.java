@@ -0,0 +1,141 @@
+package com.example.sheetkv.adapter;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import com.example.sheetkv.model.QuotaBucketStats;
+
+/**
+ * Token bucket whose waiters are queued per collection and granted tokens round-robin, so a
+ * burst against one collection cannot starve the others. Waiters park on a {@link Condition}
+ * rather than a monitor so that virtual threads waiting for quota do not pin their carriers.
+ */
+final class QuotaBucket {
+    private final int perMinute;
+    private final double capacity;
+    private final double tokensPerNano;
+    private final Map<String, ArrayDeque<Waiter>> queues = new HashMap<>();
+    private final ArrayDeque<String> rotation = new ArrayDeque<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition();
+    private double tokens;
+    private long refilledAt;
+    private int waiting;
+    private long acquired;
+    private long delayed;
+    private long totalWaitNanos;
+    private long maxWaitNanos;
+
+    QuotaBucket(int perMinute, int burst) {
+        this.perMinute = Math.max(1, perMinute);
+        this.capacity = Math.max(1, burst);
+        this.tokensPerNano = this.perMinute / (double) TimeUnit.MINUTES.toNanos(1);
+        this.tokens = capacity;
+        this.refilledAt = System.nanoTime();
+    }
+
+    void acquire(String collection) throws InterruptedException {
+        lock.lock();
+        try {
+            refill();
+            if (waiting == 0 && tokens >= 1) {
+                tokens -= 1;
+                acquired++;
+                return;
+            }
+            Waiter waiter = new Waiter();
+            ArrayDeque<Waiter> queue = queues.computeIfAbsent(collection, key -> {
+                rotation.addLast(key);
+                return new ArrayDeque<>();
+            });
+            queue.addLast(waiter);
+            waiting++;
+            long started = System.nanoTime();
+            try {
+                while (!waiter.granted) {
+                    grant();
+                    if (!waiter.granted) {
+                        long waitNanos = Math.max(TimeUnit.MILLISECONDS.toNanos(1),
+                                (long) ((1 - tokens) / tokensPerNano));
+                        changed.awaitNanos(waitNanos);
+                    }
+                }
+            } catch (InterruptedException ex) {
+                if (waiter.granted) {
+                    tokens += 1;
+                    acquired--;
+                } else {
+                    remove(collection, waiter);
+                }
+                changed.signalAll();
+                throw ex;
+            }
+            long waited = System.nanoTime() - started;
+            delayed++;
+            totalWaitNanos += waited;
+            maxWaitNanos = Math.max(maxWaitNanos, waited);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    QuotaBucketStats stats() {
+        lock.lock();
+        try {
+            refill();
+            Map<String, Integer> queued = new HashMap<>();
+            queues.forEach((collection, queue) -> queued.put(collection, queue.size()));
+            return new QuotaBucketStats(perMinute, tokens, waiting, queued, acquired, delayed,
+                    TimeUnit.NANOSECONDS.toMillis(totalWaitNanos), TimeUnit.NANOSECONDS.toMillis(maxWaitNanos));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void grant() {
+        refill();
+        boolean granted = false;
+        while (tokens >= 1 && !rotation.isEmpty()) {
+            String collection = rotation.pollFirst();
+            ArrayDeque<Waiter> queue = queues.get(collection);
+            queue.pollFirst().granted = true;
+            tokens -= 1;
+            acquired++;
+            waiting--;
+            granted = true;
+            if (queue.isEmpty()) {
+                queues.remove(collection);
+            } else {
+                rotation.addLast(collection);
+            }
+        }
+        if (granted) {
+            changed.signalAll();
+        }
+    }
+
+    private void remove(String collection, Waiter waiter) {
+        ArrayDeque<Waiter> queue = queues.get(collection);
+        if (queue != null && queue.remove(waiter)) {
+            waiting--;
+            if (queue.isEmpty()) {
+                queues.remove(collection);
+                rotation.remove(collection);
+            }
+        }
+    }
+
+    private void refill() {
+        long now = System.nanoTime();
+        tokens = Math.min(capacity, tokens + (now - refilledAt) * tokensPerNano);
+        refilledAt = now;
+    }
+
+    private static final class Waiter {
+        private boolean granted;
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.sheetkv.adapter;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import com.example.sheetkv.config.QuotaProperties;
+import com.example.sheetkv.exception.BackendException;
+import com.example.sheetkv.exception.QuotaExceededException;
+import com.example.sheetkv.model.QuotaStats;
+import com.google.api.client.http.HttpResponseException;
+
+@Component
+public class QuotaScheduler {
+    private static final Logger logger = LoggerFactory.getLogger(QuotaScheduler.class);
+
+    private final QuotaProperties properties;
+    private final QuotaBucket reads;
+    private final QuotaBucket writes;
+    private final AtomicLong readCalls = new AtomicLong();
+    private final AtomicLong writeCalls = new AtomicLong();
+    private final AtomicLong throttled = new AtomicLong();
+    private final AtomicLong serverErrors = new AtomicLong();
+    private final AtomicLong retries = new AtomicLong();
+    private final AtomicLong exhausted = new AtomicLong();
+
+    public QuotaScheduler(QuotaProperties properties) {
+        this.properties = properties;
+        this.reads = new QuotaBucket(properties.getReadsPerMinute(), properties.getBurst());
+        this.writes = new QuotaBucket(properties.getWritesPerMinute(), properties.getBurst());
+    }
+
+    public <T> T read(String collection, SheetsCall<T> call) throws IOException {
+        return execute(reads, readCalls, collection, call, true);
+    }
+
+    public <T> T write(String collection, SheetsCall<T> call) throws IOException {
+        return execute(writes, writeCalls, collection, call, true);
+    }
+
+    /**
+     * Write that must not be repeated once the server may have applied it, such as row deletes
+     * and appends. Only {@code 429}, which Sheets returns before applying anything, is retried.
+     */
+    public <T> T writeOnce(String collection, SheetsCall<T> call) throws IOException {
+        return execute(writes, writeCalls, collection, call, false);
+    }
+
+    public QuotaStats getStats() {
+        return new QuotaStats(properties.isEnabled(), reads.stats(), writes.stats(), readCalls.get(),
+                writeCalls.get(), throttled.get(), serverErrors.get(), retries.get(), exhausted.get());
+    }
+
+    private <T> T execute(QuotaBucket bucket, AtomicLong calls, String collection, SheetsCall<T> call,
+            boolean idempotent) throws IOException {
+        if (!properties.isEnabled()) {
+            calls.incrementAndGet();
+            return call.execute();
+        }
+        for (int attempt = 0;; attempt++) {
+            acquire(bucket, collection);
+            calls.incrementAndGet();
+            try {
+                return call.execute();
+            } catch (HttpResponseException ex) {
+                int status = ex.getStatusCode();
+                boolean quota = status == 429;
+                if (!quota && status < 500) {
+                    throw ex;
+                }
+                (quota ? throttled : serverErrors).incrementAndGet();
+                if (!quota && !idempotent) {
+                    throw ex;
+                }
+                if (attempt >= properties.getMaxRetries()) {
+                    exhausted.incrementAndGet();
+                    if (quota) {
+                        throw new QuotaExceededException("Google Sheets quota exceeded", ex);
+                    }
+                    throw ex;
+                }
+                long delayMs = backoffMillis(attempt);
+                retries.incrementAndGet();
+                logger.warn("sheets.retry collection={} status={} attempt={} delayMs={}",
+                        collection, status, attempt + 1, delayMs);
+                sleep(delayMs);
+            }
+        }
+    }
+
+    private long backoffMillis(int attempt) {
+        long initial = Math.max(1, properties.getInitialBackoff().toMillis());
+        long max = Math.max(initial, properties.getMaxBackoff().toMillis());
+        long ceiling = Math.min(max, initial << Math.min(attempt, 20));
+        return ceiling / 2 + ThreadLocalRandom.current().nextLong(ceiling / 2 + 1);
+    }
+
+    private static void acquire(QuotaBucket bucket, String collection) {
+        try {
+            bucket.acquire(collection == null ? "" : collection);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new BackendException("Interrupted while waiting for quota", ex);
+        }
+    }
+
+    private static void sleep(long delayMs) {
+        try {
+            Thread.sleep(delayMs);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new BackendException("Interrupted while backing off", ex);
+        }
+    }
+
+    @FunctionalInterface
+    public interface SheetsCall<T> {
+        T execute() throws IOException;
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.sheetkv.adapter;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+public interface SheetBackend {
+    List<SheetInfo> getSheetInfos();
+
+    List<SheetInfo> refreshMetadata();
+
+    List<String> readColumnA(String sheetName);
+
+    Map<String, List<String>> readColumnA(Map<String, int[]> rangesBySheet);
+
+    String readCell(String sheetName, int row);
+
+    Map<Integer, String> readCells(String sheetName, Collection<Integer> rows);
+
+    Map<Integer, SheetRow> readRows(String sheetName, Collection<Integer> rows);
+
+    List<SheetRow> readSheetRows(String sheetName);
+
+    boolean isColumnAEmpty(String sheetName, int startRow, int endRow);
+
+    int nextRow(String sheetName);
+
+    void updateCell(String sheetName, int row, String value);
+
+    void writeRow(String sheetName, int row, String id, String value);
+
+    void batchUpdateValues(List<CellRange> data);
+
+    void clearRows(String sheetName, Collection<Integer> rows);
+
+    void deleteRow(String sheetName, int row);
+
+    void deleteRows(String sheetName, Collection<Integer> rows);
+
+    /**
+     * Writes {@code writes} (columns A and B), clears {@code clearedRows} and deletes
+     * {@code deletedRows} of one sheet in a single request that is applied all or nothing.
+     * All rows are numbered as before the call; deletes are applied last.
+     */
+    void applyRowChanges(String sheetName, List<SheetRow> writes, Collection<Integer> clearedRows,
+            Collection<Integer> deletedRows);
+
+    void createSheet(String name);
+
+    void deleteSheet(String name);
+
+    void renameSheet(String oldName, String newName);
+}
@@ -0,0 +1,4 @@
+package com.example.sheetkv.adapter;
+
+public record SheetInfo(int sheetId, String title, int rowCount, int columnCount) {
+}
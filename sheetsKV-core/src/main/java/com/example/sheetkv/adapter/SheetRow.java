@@ -0,0 +1,4 @@
+package com.example.sheetkv.adapter;
+
+public record SheetRow(int row, String id, String value) {
+}
@@ -1,45 +1,77 @@
 package com.example.sheetkv.adapter;
 
 import java.io.IOException;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Component;
 
 import com.example.sheetkv.config.SheetProperties;
+import com.example.sheetkv.exception.ApiException;
 import com.example.sheetkv.exception.BackendException;
+import com.example.sheetkv.exception.BadRequestException;
+import com.google.api.client.http.HttpResponseException;
 import com.google.api.services.sheets.v4.Sheets;
 import com.google.api.services.sheets.v4.model.AddSheetRequest;
+import com.google.api.services.sheets.v4.model.AppendDimensionRequest;
+import com.google.api.services.sheets.v4.model.BatchClearValuesRequest;
+import com.google.api.services.sheets.v4.model.BatchGetValuesResponse;
+import com.google.api.services.sheets.v4.model.BatchUpdateValuesRequest;
 import com.google.api.services.sheets.v4.model.BatchUpdateSpreadsheetRequest;
+import com.google.api.services.sheets.v4.model.BatchUpdateSpreadsheetResponse;
+import com.google.api.services.sheets.v4.model.CellData;
 import com.google.api.services.sheets.v4.model.DeleteDimensionRequest;
 import com.google.api.services.sheets.v4.model.DeleteSheetRequest;
 import com.google.api.services.sheets.v4.model.DimensionRange;
+import com.google.api.services.sheets.v4.model.ExtendedValue;
+import com.google.api.services.sheets.v4.model.GridCoordinate;
+import com.google.api.services.sheets.v4.model.GridProperties;
+import com.google.api.services.sheets.v4.model.GridRange;
 import com.google.api.services.sheets.v4.model.Request;
+import com.google.api.services.sheets.v4.model.RowData;
 import com.google.api.services.sheets.v4.model.Sheet;
 import com.google.api.services.sheets.v4.model.Spreadsheet;
+import com.google.api.services.sheets.v4.model.UpdateCellsRequest;
 import com.google.api.services.sheets.v4.model.UpdateSheetPropertiesRequest;
 import com.google.api.services.sheets.v4.model.ValueRange;
 
 @Component
-public class SheetsAdapter {
+@ConditionalOnProperty(prefix = "sheet", name = "backend", havingValue = "google", matchIfMissing = true)
+public class SheetsAdapter implements SheetBackend {
     private static final Logger logger = LoggerFactory.getLogger(SheetsAdapter.class);
+    private static final int MAX_RANGES_PER_REQUEST = 200;
+    private static final int MAX_RANGE_CHARS_PER_REQUEST = 6000;
+    private static final String METADATA = "*";
 
     private final Sheets sheets;
     private final SheetProperties properties;
+    private final QuotaScheduler quota;
+    private volatile Map<String, SheetInfo> sheetInfos;
+    private volatile long sheetInfosLoadedAt;
+    private final ReentrantLock metadataLock = new ReentrantLock();
 
-    public SheetsAdapter(Sheets sheets, SheetProperties properties) {
+    public SheetsAdapter(Sheets sheets, SheetProperties properties, QuotaScheduler quota) {
         this.sheets = sheets;
         this.properties = properties;
+        this.quota = quota;
     }
 
     public Spreadsheet getSpreadsheetMetadata() {
         try {
-            return sheets.spreadsheets().get(properties.getSpreadsheetId())
-                    .setFields("sheets.properties")
-                    .execute();
+            return quota.read(METADATA, sheets.spreadsheets().get(properties.getSpreadsheetId())
+                    .setFields("sheets.properties")::execute);
         } catch (IOException ex) {
             logger.error("sheets.metadata failed", ex);
             throw new BackendException("Failed to fetch spreadsheet metadata", ex);
@@ -51,11 +83,21 @@ public class SheetsAdapter {
         return Optional.ofNullable(metadata.getSheets()).orElse(List.of());
     }
 
+    @Override
+    public List<SheetInfo> getSheetInfos() {
+        return List.copyOf(currentSheetInfos().values());
+    }
+
+    @Override
+    public List<SheetInfo> refreshMetadata() {
+        return List.copyOf(loadSheetInfos().values());
+    }
+
+    @Override
     public List<String> readColumnA(String sheetName) {
         try {
-            ValueRange range = sheets.spreadsheets().values()
-                    .get(properties.getSpreadsheetId(), sheetName + "!A:A")
-                    .execute();
+            ValueRange range = quota.read(sheetName, sheets.spreadsheets().values()
+                    .get(properties.getSpreadsheetId(), sheetName + "!A:A")::execute);
             List<List<Object>> values = Optional.ofNullable(range.getValues()).orElse(List.of());
             List<String> ids = new ArrayList<>();
             for (List<Object> row : values) {
@@ -73,11 +115,36 @@ public class SheetsAdapter {
         }
     }
 
+    @Override
+    public Map<String, List<String>> readColumnA(Map<String, int[]> rangesBySheet) {
+        Map<String, List<String>> result = new HashMap<>();
+        List<String> sheetNames = new ArrayList<>();
+        List<String> ranges = new ArrayList<>();
+        int chars = 0;
+        for (Map.Entry<String, int[]> entry : rangesBySheet.entrySet()) {
+            String range = entry.getKey() + "!A" + entry.getValue()[0] + ":A" + entry.getValue()[1];
+            if (!ranges.isEmpty()
+                    && (ranges.size() >= MAX_RANGES_PER_REQUEST || chars + range.length() > MAX_RANGE_CHARS_PER_REQUEST)) {
+                collectColumnA(result, sheetNames, ranges, rangesBySheet);
+                sheetNames.clear();
+                ranges.clear();
+                chars = 0;
+            }
+            sheetNames.add(entry.getKey());
+            ranges.add(range);
+            chars += range.length();
+        }
+        if (!ranges.isEmpty()) {
+            collectColumnA(result, sheetNames, ranges, rangesBySheet);
+        }
+        return result;
+    }
+
+    @Override
     public String readCell(String sheetName, int row) {
         try {
-            ValueRange range = sheets.spreadsheets().values()
-                    .get(properties.getSpreadsheetId(), sheetName + "!B" + row)
-                    .execute();
+            ValueRange range = quota.read(sheetName, sheets.spreadsheets().values()
+                    .get(properties.getSpreadsheetId(), sheetName + "!B" + row)::execute);
             List<List<Object>> values = range.getValues();
             if (values == null || values.isEmpty() || values.get(0).isEmpty()) {
                 return null;
@@ -90,78 +157,247 @@ public class SheetsAdapter {
         }
     }
 
+    @Override
+    public Map<Integer, String> readCells(String sheetName, Collection<Integer> rows) {
+        Map<Integer, String> result = new HashMap<>();
+        readRuns(sheetName, rows, "B", "B").forEach((row, cells) -> {
+            String value = cellAt(cells, 0);
+            if (value != null) {
+                result.put(row, value);
+            }
+        });
+        return result;
+    }
+
+    @Override
+    public Map<Integer, SheetRow> readRows(String sheetName, Collection<Integer> rows) {
+        Map<Integer, SheetRow> result = new HashMap<>();
+        readRuns(sheetName, rows, "A", "B").forEach((row, cells) ->
+                result.put(row, new SheetRow(row, cellAt(cells, 0), cellAt(cells, 1))));
+        return result;
+    }
+
+    @Override
     public void updateCell(String sheetName, int row, String value) {
         try {
             ValueRange body = new ValueRange().setValues(List.of(List.of(value)));
-            sheets.spreadsheets().values()
+            quota.write(sheetName, sheets.spreadsheets().values()
                     .update(properties.getSpreadsheetId(), sheetName + "!B" + row, body)
-                    .setValueInputOption("RAW")
-                    .execute();
+                    .setValueInputOption("RAW")::execute);
         } catch (IOException ex) {
             logger.error("sheets.updateCell failed sheet={} row={}", sheetName, row, ex);
-            throw new BackendException("Failed to update cell", ex);
+            throw writeFailure("Failed to update cell", ex);
         }
     }
 
-    public int appendRow(String sheetName, String id, String value) {
+    @Override
+    public void batchUpdateValues(List<CellRange> data) {
+        if (data.isEmpty()) {
+            return;
+        }
+        try {
+            BatchUpdateValuesRequest body = new BatchUpdateValuesRequest()
+                    .setValueInputOption("RAW")
+                    .setData(data.stream().map(SheetsAdapter::toValueRange).toList());
+            quota.write(data.get(0).sheetName(), sheets.spreadsheets().values()
+                    .batchUpdate(properties.getSpreadsheetId(), body)::execute);
+        } catch (IOException ex) {
+            logger.error("sheets.batchUpdateValues failed ranges={}", data.size(), ex);
+            throw writeFailure("Failed to batch update values", ex);
+        }
+    }
+
+    @Override
+    public int nextRow(String sheetName) {
+        return readColumnA(sheetName).size() + 1;
+    }
+
+    @Override
+    public List<SheetRow> readSheetRows(String sheetName) {
+        ValueRange range = readRange(sheetName, sheetName + "!A:B");
+        List<List<Object>> values = Optional.ofNullable(range.getValues()).orElse(List.of());
+        List<SheetRow> rows = new ArrayList<>(values.size());
+        for (int i = 0; i < values.size(); i++) {
+            List<Object> cells = values.get(i);
+            rows.add(new SheetRow(i + 1, cellAt(cells, 0), cellAt(cells, 1)));
+        }
+        return rows;
+    }
+
+    @Override
+    public void clearRows(String sheetName, Collection<Integer> rows) {
+        List<String> ranges = toRuns(rows).stream()
+                .map(run -> sheetName + "!A" + run[0] + ":B" + run[1])
+                .toList();
+        if (ranges.isEmpty()) {
+            return;
+        }
+        try {
+            quota.write(sheetName, sheets.spreadsheets().values()
+                    .batchClear(properties.getSpreadsheetId(), new BatchClearValuesRequest().setRanges(ranges))::execute);
+        } catch (IOException ex) {
+            logger.error("sheets.clearRows failed sheet={} rows={}", sheetName, rows.size(), ex);
+            throw new BackendException("Failed to clear rows", ex);
+        }
+    }
+
+    @Override
+    public boolean isColumnAEmpty(String sheetName, int startRow, int endRow) {
+        ValueRange range = readRange(sheetName, sheetName + "!A" + startRow + ":A" + endRow);
+        List<List<Object>> values = Optional.ofNullable(range.getValues()).orElse(List.of());
+        return values.stream().allMatch(row -> row.isEmpty() || row.get(0) == null || String.valueOf(row.get(0)).isEmpty());
+    }
+
+    @Override
+    public void writeRow(String sheetName, int row, String id, String value) {
         try {
-            int row = readColumnA(sheetName).size() + 1;
             ValueRange body = new ValueRange().setValues(List.of(List.of(id, value)));
-            sheets.spreadsheets().values()
+            quota.write(sheetName, sheets.spreadsheets().values()
                     .update(properties.getSpreadsheetId(), sheetName + "!A" + row + ":B" + row, body)
-                    .setValueInputOption("RAW")
-                    .execute();
-            return row;
+                    .setValueInputOption("RAW")::execute);
         } catch (IOException ex) {
-            logger.error("sheets.appendRow failed sheet={}", sheetName, ex);
-            throw new BackendException("Failed to append row", ex);
+            logger.error("sheets.writeRow failed sheet={} row={}", sheetName, row, ex);
+            throw writeFailure("Failed to append row", ex);
         }
     }
 
+    @Override
     public void deleteRow(String sheetName, int row) {
+        deleteRows(sheetName, List.of(row));
+    }
+
+    @Override
+    public void deleteRows(String sheetName, Collection<Integer> rows) {
+        List<int[]> runs = toRuns(rows);
+        if (runs.isEmpty()) {
+            return;
+        }
         try {
             int sheetId = getSheetId(sheetName);
-            DeleteDimensionRequest deleteRequest = new DeleteDimensionRequest()
-                    .setRange(new DimensionRange()
-                            .setSheetId(sheetId)
-                            .setDimension("ROWS")
-                            .setStartIndex(row - 1)
-                            .setEndIndex(row));
-            BatchUpdateSpreadsheetRequest batch = new BatchUpdateSpreadsheetRequest()
-                    .setRequests(List.of(new Request().setDeleteDimension(deleteRequest)));
-            sheets.spreadsheets().batchUpdate(properties.getSpreadsheetId(), batch).execute();
+            List<Request> requests = new ArrayList<>();
+            for (int i = runs.size() - 1; i >= 0; i--) {
+                int[] run = runs.get(i);
+                DeleteDimensionRequest deleteRequest = new DeleteDimensionRequest()
+                        .setRange(new DimensionRange()
+                                .setSheetId(sheetId)
+                                .setDimension("ROWS")
+                                .setStartIndex(run[0] - 1)
+                                .setEndIndex(run[1]));
+                requests.add(new Request().setDeleteDimension(deleteRequest));
+            }
+            BatchUpdateSpreadsheetRequest batch = new BatchUpdateSpreadsheetRequest().setRequests(requests);
+            quota.writeOnce(sheetName, sheets.spreadsheets().batchUpdate(properties.getSpreadsheetId(), batch)::execute);
+        } catch (IOException ex) {
+            logger.error("sheets.deleteRows failed sheet={} rows={}", sheetName, rows.size(), ex);
+            throw new BackendException("Failed to delete rows", ex);
+        }
+    }
+
+    /**
+     * Compiles the changes into one {@code spreadsheets.batchUpdate}: cell updates for runs of
+     * written rows, cleared ranges, then row deletes from the bottom up. Unlike the values API,
+     * cell updates do not grow the grid, so rows are appended to it first when writes go past it.
+     */
+    @Override
+    public void applyRowChanges(String sheetName, List<SheetRow> writes, Collection<Integer> clearedRows,
+            Collection<Integer> deletedRows) {
+        if (writes.isEmpty() && clearedRows.isEmpty() && deletedRows.isEmpty()) {
+            return;
+        }
+        try {
+            int sheetId = getSheetId(sheetName);
+            int lastWritten = writes.stream().mapToInt(SheetRow::row).max().orElse(0);
+            int gridRows = gridRows(sheetName, lastWritten);
+            List<Request> requests = new ArrayList<>();
+            if (lastWritten > gridRows) {
+                requests.add(new Request().setAppendDimension(new AppendDimensionRequest()
+                        .setSheetId(sheetId)
+                        .setDimension("ROWS")
+                        .setLength(lastWritten - gridRows)));
+            }
+            List<SheetRow> sorted = writes.stream().sorted(Comparator.comparingInt(SheetRow::row)).toList();
+            for (int start = 0; start < sorted.size();) {
+                int end = start + 1;
+                while (end < sorted.size() && sorted.get(end).row() == sorted.get(end - 1).row() + 1) {
+                    end++;
+                }
+                List<RowData> rows = sorted.subList(start, end).stream()
+                        .map(row -> new RowData().setValues(List.of(stringCell(row.id()), stringCell(row.value()))))
+                        .toList();
+                requests.add(new Request().setUpdateCells(new UpdateCellsRequest()
+                        .setStart(new GridCoordinate().setSheetId(sheetId).setRowIndex(sorted.get(start).row() - 1)
+                                .setColumnIndex(0))
+                        .setRows(rows)
+                        .setFields("userEnteredValue")));
+                start = end;
+            }
+            for (int[] run : toRuns(clearedRows)) {
+                requests.add(new Request().setUpdateCells(new UpdateCellsRequest()
+                        .setRange(new GridRange().setSheetId(sheetId).setStartRowIndex(run[0] - 1)
+                                .setEndRowIndex(run[1]).setStartColumnIndex(0).setEndColumnIndex(2))
+                        .setFields("userEnteredValue")));
+            }
+            List<int[]> deleteRuns = toRuns(deletedRows);
+            for (int i = deleteRuns.size() - 1; i >= 0; i--) {
+                int[] run = deleteRuns.get(i);
+                requests.add(new Request().setDeleteDimension(new DeleteDimensionRequest()
+                        .setRange(new DimensionRange()
+                                .setSheetId(sheetId)
+                                .setDimension("ROWS")
+                                .setStartIndex(run[0] - 1)
+                                .setEndIndex(run[1]))));
+            }
+            BatchUpdateSpreadsheetRequest batch = new BatchUpdateSpreadsheetRequest().setRequests(requests);
+            quota.writeOnce(sheetName, sheets.spreadsheets().batchUpdate(properties.getSpreadsheetId(), batch)::execute);
+            int deleted = deleteRuns.stream().mapToInt(run -> run[1] - run[0] + 1).sum();
+            updateSheetInfos(infos -> infos.computeIfPresent(sheetName, (name, info) -> new SheetInfo(info.sheetId(),
+                    name, Math.max(info.rowCount(), lastWritten) - deleted, info.columnCount())));
         } catch (IOException ex) {
-            logger.error("sheets.deleteRow failed sheet={} row={}", sheetName, row, ex);
-            throw new BackendException("Failed to delete row", ex);
+            invalidateMetadata();
+            logger.error("sheets.applyRowChanges failed sheet={} writes={} cleared={} deleted={}", sheetName,
+                    writes.size(), clearedRows.size(), deletedRows.size(), ex);
+            throw writeFailure("Failed to apply row changes", ex);
         }
     }
 
+    @Override
     public void createSheet(String name) {
         try {
             AddSheetRequest addRequest = new AddSheetRequest()
                     .setProperties(new com.google.api.services.sheets.v4.model.SheetProperties().setTitle(name));
             BatchUpdateSpreadsheetRequest batch = new BatchUpdateSpreadsheetRequest()
                     .setRequests(List.of(new Request().setAddSheet(addRequest)));
-            sheets.spreadsheets().batchUpdate(properties.getSpreadsheetId(), batch).execute();
+            BatchUpdateSpreadsheetResponse response = quota.writeOnce(name, sheets.spreadsheets()
+                    .batchUpdate(properties.getSpreadsheetId(), batch)::execute);
+            Optional.ofNullable(response.getReplies()).orElse(List.of()).stream()
+                    .filter(reply -> reply.getAddSheet() != null)
+                    .map(reply -> toSheetInfo(reply.getAddSheet().getProperties()))
+                    .filter(info -> info != null)
+                    .findFirst()
+                    .ifPresentOrElse(info -> updateSheetInfos(infos -> infos.put(info.title(), info)),
+                            this::invalidateMetadata);
         } catch (IOException ex) {
             logger.error("sheets.createSheet failed name={}", name, ex);
             throw new BackendException("Failed to create sheet", ex);
         }
     }
 
+    @Override
     public void deleteSheet(String name) {
         try {
             int sheetId = getSheetId(name);
             DeleteSheetRequest deleteRequest = new DeleteSheetRequest().setSheetId(sheetId);
             BatchUpdateSpreadsheetRequest batch = new BatchUpdateSpreadsheetRequest()
                     .setRequests(List.of(new Request().setDeleteSheet(deleteRequest)));
-            sheets.spreadsheets().batchUpdate(properties.getSpreadsheetId(), batch).execute();
+            quota.writeOnce(name, sheets.spreadsheets().batchUpdate(properties.getSpreadsheetId(), batch)::execute);
+            updateSheetInfos(infos -> infos.remove(name));
         } catch (IOException ex) {
             logger.error("sheets.deleteSheet failed name={}", name, ex);
             throw new BackendException("Failed to delete sheet", ex);
         }
     }
 
+    @Override
     public void renameSheet(String oldName, String newName) {
         try {
             int sheetId = getSheetId(oldName);
@@ -172,34 +408,240 @@ public class SheetsAdapter {
                     .setFields("title");
             BatchUpdateSpreadsheetRequest batch = new BatchUpdateSpreadsheetRequest()
                     .setRequests(List.of(new Request().setUpdateSheetProperties(updateRequest)));
-            sheets.spreadsheets().batchUpdate(properties.getSpreadsheetId(), batch).execute();
+            quota.writeOnce(oldName, sheets.spreadsheets().batchUpdate(properties.getSpreadsheetId(), batch)::execute);
+            updateSheetInfos(infos -> {
+                SheetInfo info = infos.remove(oldName);
+                if (info != null) {
+                    infos.put(newName, new SheetInfo(info.sheetId(), newName, info.rowCount(), info.columnCount()));
+                }
+            });
         } catch (IOException ex) {
             logger.error("sheets.renameSheet failed old={} new={}", oldName, newName, ex);
             throw new BackendException("Failed to rename sheet", ex);
         }
     }
 
+    private Map<Integer, List<Object>> readRuns(String sheetName, Collection<Integer> rows,
+            String firstColumn, String lastColumn) {
+        Map<Integer, List<Object>> result = new HashMap<>();
+        List<int[]> runs = toRuns(rows);
+        if (runs.size() == 1) {
+            int[] run = runs.get(0);
+            String range = sheetName + "!" + firstColumn + run[0] + ":" + lastColumn + run[1];
+            collectRun(result, run[0], readRange(sheetName, range));
+            return result;
+        }
+        for (List<int[]> chunk : chunkRuns(sheetName, runs)) {
+            List<String> ranges = chunk.stream()
+                    .map(run -> sheetName + "!" + firstColumn + run[0] + ":" + lastColumn + run[1])
+                    .toList();
+            List<ValueRange> valueRanges = batchGet(sheetName, ranges);
+            for (int i = 0; i < chunk.size() && i < valueRanges.size(); i++) {
+                collectRun(result, chunk.get(i)[0], valueRanges.get(i));
+            }
+        }
+        return result;
+    }
+
+    private void collectColumnA(Map<String, List<String>> result, List<String> sheetNames, List<String> ranges,
+            Map<String, int[]> rangesBySheet) {
+        List<ValueRange> valueRanges = batchGet(sheetNames.get(0), ranges);
+        for (int i = 0; i < sheetNames.size(); i++) {
+            int[] range = rangesBySheet.get(sheetNames.get(i));
+            Map<Integer, List<Object>> cells = new HashMap<>();
+            if (i < valueRanges.size()) {
+                collectRun(cells, range[0], valueRanges.get(i));
+            }
+            List<String> ids = new ArrayList<>();
+            for (int row = range[0]; row <= range[1]; row++) {
+                String id = cellAt(cells.get(row), 0);
+                ids.add(id == null ? "" : id);
+            }
+            result.put(sheetNames.get(i), ids);
+        }
+    }
+
+    private static void collectRun(Map<Integer, List<Object>> result, int startRow, ValueRange valueRange) {
+        List<List<Object>> values = Optional.ofNullable(valueRange.getValues()).orElse(List.of());
+        for (int offset = 0; offset < values.size(); offset++) {
+            result.put(startRow + offset, values.get(offset));
+        }
+    }
+
+    private static String cellAt(List<Object> cells, int column) {
+        if (cells == null || cells.size() <= column || cells.get(column) == null) {
+            return null;
+        }
+        return String.valueOf(cells.get(column));
+    }
+
+    private ValueRange readRange(String sheetName, String range) {
+        try {
+            return quota.read(sheetName, sheets.spreadsheets().values()
+                    .get(properties.getSpreadsheetId(), range)::execute);
+        } catch (IOException ex) {
+            logger.error("sheets.readRange failed sheet={} range={}", sheetName, range, ex);
+            throw new BackendException("Failed to read range", ex);
+        }
+    }
+
+    private List<ValueRange> batchGet(String sheetName, List<String> ranges) {
+        try {
+            BatchGetValuesResponse response = quota.read(sheetName, sheets.spreadsheets().values()
+                    .batchGet(properties.getSpreadsheetId())
+                    .setRanges(ranges)::execute);
+            return Optional.ofNullable(response.getValueRanges()).orElse(List.of());
+        } catch (IOException ex) {
+            logger.error("sheets.batchGet failed sheet={} ranges={}", sheetName, ranges.size(), ex);
+            throw new BackendException("Failed to read ranges", ex);
+        }
+    }
+
+    /** A write Sheets refused with {@code 400} fails the same way when retried; anything else may not. */
+    private static ApiException writeFailure(String message, IOException ex) {
+        if (ex instanceof HttpResponseException response && response.getStatusCode() == 400) {
+            return new BadRequestException(message + ": " + response.getStatusMessage());
+        }
+        return new BackendException(message, ex);
+    }
+
+    private static ValueRange toValueRange(CellRange range) {
+        List<List<Object>> values = new ArrayList<>(range.values().size());
+        int width = 1;
+        for (List<String> row : range.values()) {
+            values.add(new ArrayList<>(row));
+            width = Math.max(width, row.size());
+        }
+        int endRow = range.row() + Math.max(1, values.size()) - 1;
+        return new ValueRange()
+                .setRange(range.sheetName() + "!" + columnLetter(range.column()) + range.row()
+                        + ":" + columnLetter(range.column() + width - 1) + endRow)
+                .setValues(values);
+    }
+
+    private static String columnLetter(int column) {
+        StringBuilder letters = new StringBuilder();
+        for (int n = column + 1; n > 0; n = (n - 1) / 26) {
+            letters.insert(0, (char) ('A' + (n - 1) % 26));
+        }
+        return letters.toString();
+    }
+
+    private static List<int[]> toRuns(Collection<Integer> rows) {
+        int[] sorted = rows.stream().mapToInt(Integer::intValue).filter(row -> row > 0).sorted().distinct().toArray();
+        List<int[]> runs = new ArrayList<>();
+        for (int row : sorted) {
+            int[] last = runs.isEmpty() ? null : runs.get(runs.size() - 1);
+            if (last != null && last[1] + 1 == row) {
+                last[1] = row;
+            } else {
+                runs.add(new int[] { row, row });
+            }
+        }
+        return runs;
+    }
+
+    private static List<List<int[]>> chunkRuns(String sheetName, List<int[]> runs) {
+        List<List<int[]>> chunks = new ArrayList<>();
+        List<int[]> current = new ArrayList<>();
+        int chars = 0;
+        for (int[] run : runs) {
+            int rangeChars = sheetName.length() + 24;
+            if (!current.isEmpty()
+                    && (current.size() >= MAX_RANGES_PER_REQUEST || chars + rangeChars > MAX_RANGE_CHARS_PER_REQUEST)) {
+                chunks.add(current);
+                current = new ArrayList<>();
+                chars = 0;
+            }
+            current.add(run);
+            chars += rangeChars;
+        }
+        if (!current.isEmpty()) {
+            chunks.add(current);
+        }
+        return chunks;
+    }
+
+    /** Grid row count of the sheet, reloaded once when the cached count is smaller than {@code needed}. */
+    private int gridRows(String sheetName, int needed) {
+        int cached = findSheetInfo(sheetName).map(SheetInfo::rowCount).orElse(0);
+        if (cached >= needed) {
+            return cached;
+        }
+        return Optional.ofNullable(loadSheetInfos().get(sheetName)).map(SheetInfo::rowCount).orElse(0);
+    }
+
+    private static CellData stringCell(String value) {
+        return new CellData().setUserEnteredValue(new ExtendedValue().setStringValue(value == null ? "" : value));
+    }
+
     private int getSheetId(String name) {
-        return listSheets().stream()
-                .map(Sheet::getProperties)
-                .filter(props -> props != null && name.equals(props.getTitle()))
-                .map(com.google.api.services.sheets.v4.model.SheetProperties::getSheetId)
-                .findFirst()
+        return findSheetInfo(name)
+                .or(() -> Optional.ofNullable(loadSheetInfos().get(name)))
+                .map(SheetInfo::sheetId)
                 .orElseThrow(() -> new BackendException("Sheet not found: " + name));
     }
 
-    private int parseRowFromRange(String range) {
-        if (range == null) {
-            return -1;
+    private Optional<SheetInfo> findSheetInfo(String name) {
+        return Optional.ofNullable(currentSheetInfos().get(name));
+    }
+
+    private Map<String, SheetInfo> currentSheetInfos() {
+        Map<String, SheetInfo> cached = sheetInfos;
+        Duration ttl = properties.getMetadataTtl();
+        boolean expired = ttl != null && System.nanoTime() - sheetInfosLoadedAt > ttl.toNanos();
+        return cached == null || expired ? loadSheetInfos() : cached;
+    }
+
+    /** Metadata is guarded by a lock rather than a monitor because loading it calls the API. */
+    private Map<String, SheetInfo> loadSheetInfos() {
+        metadataLock.lock();
+        try {
+            Map<String, SheetInfo> loaded = new LinkedHashMap<>();
+            for (Sheet sheet : listSheets()) {
+                SheetInfo info = toSheetInfo(sheet.getProperties());
+                if (info != null) {
+                    loaded.put(info.title(), info);
+                }
+            }
+            sheetInfos = loaded;
+            sheetInfosLoadedAt = System.nanoTime();
+            return loaded;
+        } finally {
+            metadataLock.unlock();
         }
-        int bang = range.indexOf('!');
-        if (bang >= 0) {
-            range = range.substring(bang + 1);
+    }
+
+    private void updateSheetInfos(Consumer<Map<String, SheetInfo>> update) {
+        metadataLock.lock();
+        try {
+            if (sheetInfos == null) {
+                return;
+            }
+            Map<String, SheetInfo> copy = new LinkedHashMap<>(sheetInfos);
+            update.accept(copy);
+            sheetInfos = copy;
+        } finally {
+            metadataLock.unlock();
         }
-        String digits = range.replaceAll("[^0-9]", "");
-        if (digits.isBlank()) {
-            return -1;
+    }
+
+    private void invalidateMetadata() {
+        metadataLock.lock();
+        try {
+            sheetInfos = null;
+        } finally {
+            metadataLock.unlock();
+        }
+    }
+
+    private static SheetInfo toSheetInfo(com.google.api.services.sheets.v4.model.SheetProperties props) {
+        if (props == null || props.getTitle() == null || props.getSheetId() == null) {
+            return null;
         }
-        return Integer.parseInt(digits);
+        GridProperties grid = props.getGridProperties();
+        int rowCount = grid == null || grid.getRowCount() == null ? 0 : grid.getRowCount();
+        int columnCount = grid == null || grid.getColumnCount() == null ? 0 : grid.getColumnCount();
+        return new SheetInfo(props.getSheetId(), props.getTitle(), rowCount, columnCount);
     }
 }
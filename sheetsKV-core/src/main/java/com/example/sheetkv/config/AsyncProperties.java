@@ -0,0 +1,50 @@
+package com.example.sheetkv.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "sheet.async")
+public class AsyncProperties {
+    private ThreadMode threads = ThreadMode.AUTO;
+    private int poolSize = 200;
+    private int queueCapacity = 1000;
+
+    public ThreadMode getThreads() {
+        return threads;
+    }
+
+    public void setThreads(ThreadMode threads) {
+        this.threads = threads;
+    }
+
+    public int getPoolSize() {
+        return poolSize;
+    }
+
+    public void setPoolSize(int poolSize) {
+        this.poolSize = poolSize;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public void setQueueCapacity(int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+
+    public enum ThreadMode {
+        /**
+         * Virtual threads when the runtime has them (Java 21+), platform threads otherwise.
+         */
+        AUTO,
+        /**
+         * One virtual thread per operation; falls back to platform threads with a warning on
+         * runtimes without virtual threads.
+         */
+        VIRTUAL,
+        /**
+         * A fixed pool of {@code poolSize} platform threads with a bounded queue.
+         */
+        PLATFORM
+    }
+}
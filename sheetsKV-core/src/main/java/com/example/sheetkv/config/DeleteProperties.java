@@ -0,0 +1,43 @@
+package com.example.sheetkv.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "sheet.deletes")
+public class DeleteProperties {
+    private DeleteMode mode = DeleteMode.PHYSICAL;
+    private Duration compactionInterval;
+
+    public DeleteMode getMode() {
+        return mode;
+    }
+
+    public void setMode(DeleteMode mode) {
+        this.mode = mode;
+    }
+
+    public Duration getCompactionInterval() {
+        return compactionInterval;
+    }
+
+    public void setCompactionInterval(Duration compactionInterval) {
+        this.compactionInterval = compactionInterval;
+    }
+
+    public boolean isTombstone() {
+        return mode == DeleteMode.TOMBSTONE;
+    }
+
+    public enum DeleteMode {
+        /**
+         * Deleted rows are removed from the sheet and every row below moves up.
+         */
+        PHYSICAL,
+        /**
+         * Deleted rows are cleared in place and reused by later appends until the
+         * collection is compacted.
+         */
+        TOMBSTONE
+    }
+}
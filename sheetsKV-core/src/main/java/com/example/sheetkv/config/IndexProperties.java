@@ -0,0 +1,64 @@
+package com.example.sheetkv.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "sheet.index")
+public class IndexProperties {
+    private KeyTableType keyTable = KeyTableType.HASH;
+    private String snapshotPath;
+    private Duration snapshotInterval = Duration.ofMinutes(5);
+    private int reindexParallelism = 4;
+
+    public KeyTableType getKeyTable() {
+        return keyTable;
+    }
+
+    public void setKeyTable(KeyTableType keyTable) {
+        this.keyTable = keyTable;
+    }
+
+    public String getSnapshotPath() {
+        return snapshotPath;
+    }
+
+    public void setSnapshotPath(String snapshotPath) {
+        this.snapshotPath = snapshotPath;
+    }
+
+    public Duration getSnapshotInterval() {
+        return snapshotInterval;
+    }
+
+    public void setSnapshotInterval(Duration snapshotInterval) {
+        this.snapshotInterval = snapshotInterval;
+    }
+
+    public int getReindexParallelism() {
+        return reindexParallelism;
+    }
+
+    public void setReindexParallelism(int reindexParallelism) {
+        this.reindexParallelism = reindexParallelism;
+    }
+
+    public boolean isSnapshotEnabled() {
+        return snapshotPath != null && !snapshotPath.isBlank();
+    }
+
+    public enum KeyTableType {
+        /**
+         * {@code HashMap} of {@code String} keys to boxed slots.
+         */
+        HASH,
+        /**
+         * Open-addressing table over a UTF-8 key arena on the heap, no per-key objects.
+         */
+        COMPACT,
+        /**
+         * Same layout as {@code COMPACT} with the key arena in direct (off-heap) memory.
+         */
+        OFF_HEAP
+    }
+}
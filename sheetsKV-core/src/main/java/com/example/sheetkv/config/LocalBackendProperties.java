@@ -0,0 +1,81 @@
+package com.example.sheetkv.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "sheet.local")
+public class LocalBackendProperties {
+    private String dataPath;
+    private Duration readLatency = Duration.ZERO;
+    private Duration writeLatency = Duration.ZERO;
+    private Duration latencyJitter = Duration.ZERO;
+    private int readsPerMinute;
+    private int writesPerMinute;
+    private double errorRate;
+    private int gridRows = 1000;
+
+    public String getDataPath() {
+        return dataPath;
+    }
+
+    public void setDataPath(String dataPath) {
+        this.dataPath = dataPath;
+    }
+
+    public Duration getReadLatency() {
+        return readLatency;
+    }
+
+    public void setReadLatency(Duration readLatency) {
+        this.readLatency = readLatency;
+    }
+
+    public Duration getWriteLatency() {
+        return writeLatency;
+    }
+
+    public void setWriteLatency(Duration writeLatency) {
+        this.writeLatency = writeLatency;
+    }
+
+    public Duration getLatencyJitter() {
+        return latencyJitter;
+    }
+
+    public void setLatencyJitter(Duration latencyJitter) {
+        this.latencyJitter = latencyJitter;
+    }
+
+    public int getReadsPerMinute() {
+        return readsPerMinute;
+    }
+
+    public void setReadsPerMinute(int readsPerMinute) {
+        this.readsPerMinute = readsPerMinute;
+    }
+
+    public int getWritesPerMinute() {
+        return writesPerMinute;
+    }
+
+    public void setWritesPerMinute(int writesPerMinute) {
+        this.writesPerMinute = writesPerMinute;
+    }
+
+    public double getErrorRate() {
+        return errorRate;
+    }
+
+    public void setErrorRate(double errorRate) {
+        this.errorRate = errorRate;
+    }
+
+    public int getGridRows() {
+        return gridRows;
+    }
+
+    public void setGridRows(int gridRows) {
+        this.gridRows = gridRows;
+    }
+}
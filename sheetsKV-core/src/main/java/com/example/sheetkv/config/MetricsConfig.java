@@ -0,0 +1,52 @@
+package com.example.sheetkv.config;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.example.sheetkv.adapter.MeteredSheetBackend;
+import com.example.sheetkv.adapter.QuotaScheduler;
+import com.example.sheetkv.adapter.SheetBackend;
+import com.example.sheetkv.service.IndexStore;
+import com.example.sheetkv.service.SheetKvMetrics;
+import com.example.sheetkv.service.WriteBuffer;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+
+/**
+ * Wraps the active {@link SheetBackend} in a {@link MeteredSheetBackend} and binds the quota and
+ * index gauges. Without a meter registry the backend is left unwrapped and the binder unused.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "sheet.metrics", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class MetricsConfig {
+
+    @Bean
+    public static BeanPostProcessor meteredSheetBackendPostProcessor(ObjectProvider<ObservationRegistry> observations,
+            ObjectProvider<MeterRegistry> meters, ObjectProvider<MetricsProperties> properties) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof SheetBackend backend) || bean instanceof MeteredSheetBackend) {
+                    return bean;
+                }
+                MeterRegistry meterRegistry = meters.getIfAvailable();
+                if (meterRegistry == null) {
+                    return bean;
+                }
+                return new MeteredSheetBackend(backend, observations.getIfAvailable(() -> ObservationRegistry.NOOP),
+                        meterRegistry, properties.getObject().isCollectionTags());
+            }
+        };
+    }
+
+    @Bean
+    public SheetKvMetrics sheetKvMetrics(QuotaScheduler quotaScheduler, IndexStore indexStore, WriteBuffer writeBuffer,
+            MetricsProperties properties) {
+        return new SheetKvMetrics(quotaScheduler, indexStore, writeBuffer, properties.getGaugeRefresh(),
+                properties.isCollectionTags());
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.sheetkv.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "sheet.metrics")
+public class MetricsProperties {
+    private boolean enabled = true;
+    private boolean collectionTags = true;
+    private Duration gaugeRefresh = Duration.ofSeconds(15);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public boolean isCollectionTags() {
+        return collectionTags;
+    }
+
+    public void setCollectionTags(boolean collectionTags) {
+        this.collectionTags = collectionTags;
+    }
+
+    public Duration getGaugeRefresh() {
+        return gaugeRefresh;
+    }
+
+    public void setGaugeRefresh(Duration gaugeRefresh) {
+        this.gaugeRefresh = gaugeRefresh;
+    }
+}
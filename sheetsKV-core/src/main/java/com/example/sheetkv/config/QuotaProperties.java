@@ -0,0 +1,72 @@
+package com.example.sheetkv.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "sheet.quota")
+public class QuotaProperties {
+    private boolean enabled = true;
+    private int readsPerMinute = 300;
+    private int writesPerMinute = 300;
+    private int burst = 10;
+    private int maxRetries = 5;
+    private Duration initialBackoff = Duration.ofMillis(500);
+    private Duration maxBackoff = Duration.ofSeconds(32);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getReadsPerMinute() {
+        return readsPerMinute;
+    }
+
+    public void setReadsPerMinute(int readsPerMinute) {
+        this.readsPerMinute = readsPerMinute;
+    }
+
+    public int getWritesPerMinute() {
+        return writesPerMinute;
+    }
+
+    public void setWritesPerMinute(int writesPerMinute) {
+        this.writesPerMinute = writesPerMinute;
+    }
+
+    public int getBurst() {
+        return burst;
+    }
+
+    public void setBurst(int burst) {
+        this.burst = burst;
+    }
+
+    public int getMaxRetries() {
+        return maxRetries;
+    }
+
+    public void setMaxRetries(int maxRetries) {
+        this.maxRetries = maxRetries;
+    }
+
+    public Duration getInitialBackoff() {
+        return initialBackoff;
+    }
+
+    public void setInitialBackoff(Duration initialBackoff) {
+        this.initialBackoff = initialBackoff;
+    }
+
+    public Duration getMaxBackoff() {
+        return maxBackoff;
+    }
+
+    public void setMaxBackoff(Duration maxBackoff) {
+        this.maxBackoff = maxBackoff;
+    }
+}
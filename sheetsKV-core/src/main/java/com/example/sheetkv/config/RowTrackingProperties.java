@@ -0,0 +1,16 @@
+package com.example.sheetkv.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "sheet.rows")
+public class RowTrackingProperties {
+    private boolean verifyAppends;
+
+    public boolean isVerifyAppends() {
+        return verifyAppends;
+    }
+
+    public void setVerifyAppends(boolean verifyAppends) {
+        this.verifyAppends = verifyAppends;
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.sheetkv.config;
 
+import java.time.Duration;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -15,6 +16,8 @@ public class SheetProperties {
     private String apiKey;
     private String serviceAccountJsonPath;
     private String spreadsheetId;
+    private Duration metadataTtl = Duration.ofMinutes(5);
+    private String backend = "google";
 
     public String getPublicUrl() {
         return publicUrl;
@@ -45,6 +48,22 @@ public class SheetProperties {
         return spreadsheetId;
     }
 
+    public Duration getMetadataTtl() {
+        return metadataTtl;
+    }
+
+    public void setMetadataTtl(Duration metadataTtl) {
+        this.metadataTtl = metadataTtl;
+    }
+
+    public String getBackend() {
+        return backend;
+    }
+
+    public void setBackend(String backend) {
+        this.backend = backend;
+    }
+
     public static String parseSpreadsheetId(String publicUrl) {
         if (publicUrl == null || publicUrl.isBlank()) {
             return null;
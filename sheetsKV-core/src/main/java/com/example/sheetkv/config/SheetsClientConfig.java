@@ -3,6 +3,7 @@ package com.example.sheetkv.config;
 import java.io.FileInputStream;
 import java.io.InputStream;
 
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -18,10 +19,14 @@ import com.google.auth.http.HttpCredentialsAdapter;
 import com.google.auth.oauth2.GoogleCredentials;
 
 @Configuration
-@EnableConfigurationProperties(SheetProperties.class)
+@EnableConfigurationProperties({ SheetProperties.class, WriteBehindProperties.class, CacheProperties.class,
+        RowTrackingProperties.class, DeleteProperties.class, IndexProperties.class,
+        QuotaProperties.class, ReadProperties.class, LocalBackendProperties.class, MetricsProperties.class,
+        TransferProperties.class, AsyncProperties.class })
 public class SheetsClientConfig {
 
     @Bean
+    @ConditionalOnProperty(prefix = "sheet", name = "backend", havingValue = "google", matchIfMissing = true)
     public Sheets sheetsClient(SheetProperties properties) throws Exception {
         var transport = GoogleNetHttpTransport.newTrustedTransport();
         var jsonFactory = JacksonFactory.getDefaultInstance();
@@ -0,0 +1,36 @@
+package com.example.sheetkv.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "sheet.transfer")
+public class TransferProperties {
+    private int exportChunkSize = 5000;
+    private int importChunkSize = 2000;
+    private Duration exportTimeout = Duration.ofHours(1);
+
+    public int getExportChunkSize() {
+        return exportChunkSize;
+    }
+
+    public void setExportChunkSize(int exportChunkSize) {
+        this.exportChunkSize = exportChunkSize;
+    }
+
+    public int getImportChunkSize() {
+        return importChunkSize;
+    }
+
+    public void setImportChunkSize(int importChunkSize) {
+        this.importChunkSize = importChunkSize;
+    }
+
+    public Duration getExportTimeout() {
+        return exportTimeout;
+    }
+
+    public void setExportTimeout(Duration exportTimeout) {
+        this.exportTimeout = exportTimeout;
+    }
+}
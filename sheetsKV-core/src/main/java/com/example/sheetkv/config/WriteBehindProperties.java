@@ -0,0 +1,77 @@
+package com.example.sheetkv.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "sheet.write-behind")
+public class WriteBehindProperties {
+    private boolean enabled;
+    private int maxBatchSize = 500;
+    private Duration flushInterval = Duration.ofSeconds(1);
+    private Durability durability = Durability.ASYNC;
+    private int maxAttempts = 10;
+    private int maxPending = 10_000;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getMaxBatchSize() {
+        return maxBatchSize;
+    }
+
+    public void setMaxBatchSize(int maxBatchSize) {
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    public Duration getFlushInterval() {
+        return flushInterval;
+    }
+
+    public void setFlushInterval(Duration flushInterval) {
+        this.flushInterval = flushInterval;
+    }
+
+    public Durability getDurability() {
+        return durability;
+    }
+
+    public void setDurability(Durability durability) {
+        this.durability = durability;
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    public void setMaxAttempts(int maxAttempts) {
+        this.maxAttempts = maxAttempts;
+    }
+
+    public int getMaxPending() {
+        return maxPending;
+    }
+
+    public void setMaxPending(int maxPending) {
+        this.maxPending = maxPending;
+    }
+
+    public enum Durability {
+        /**
+         * Writes are acknowledged once buffered. A flush that fails with {@code 429} or
+         * {@code 5xx} keeps the writes buffered and retries them on the next cycle, up to
+         * {@code maxAttempts} flushes; other failures drop the write.
+         */
+        ASYNC,
+        /**
+         * Writes are acknowledged only after the batch containing them has been
+         * written to the sheet (group commit). A failed flush fails the waiting requests.
+         */
+        GROUP_COMMIT
+    }
+}
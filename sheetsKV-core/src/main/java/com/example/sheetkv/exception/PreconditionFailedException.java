@@ -0,0 +1,9 @@
+package com.example.sheetkv.exception;
+
+import org.springframework.http.HttpStatus;
+
+public class PreconditionFailedException extends ApiException {
+    public PreconditionFailedException(String message) {
+        super(HttpStatus.PRECONDITION_FAILED, message);
+    }
+}
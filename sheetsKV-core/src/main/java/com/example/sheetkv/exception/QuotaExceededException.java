@@ -0,0 +1,9 @@
+package com.example.sheetkv.exception;
+
+import org.springframework.http.HttpStatus;
+
+public class QuotaExceededException extends ApiException {
+    public QuotaExceededException(String message, Throwable cause) {
+        super(HttpStatus.TOO_MANY_REQUESTS, message, cause);
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.sheetkv.model;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.PositiveOrZero;
+
+/**
+ * Batch upsert item. With {@code expectedVersion} the item is only written if the key still has
+ * that version; {@code 0} means the key must not exist yet.
+ */
+public record BatchUpsertItem(
+        @NotBlank String id,
+        @NotNull String value,
+        @PositiveOrZero Long expectedVersion) {
+}
@@ -5,5 +5,5 @@ import java.util.List;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotEmpty;
 
-public record BatchUpsertRequest(@NotEmpty @Valid List<KeyValueEntry> items) {
+public record BatchUpsertRequest(@NotEmpty @Valid List<BatchUpsertItem> items) {
 }
@@ -1,6 +1,7 @@
 package com.example.sheetkv.model;
 
 import java.util.List;
+import java.util.Map;
 
-public record BatchUpsertResult(List<String> created, List<String> updated) {
+public record BatchUpsertResult(List<String> created, List<String> updated, Map<String, Long> versions) {
 }
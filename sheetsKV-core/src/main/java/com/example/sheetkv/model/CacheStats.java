@@ -0,0 +1,10 @@
+package com.example.sheetkv.model;
+
+public record CacheStats(
+        int entries,
+        long estimatedBytes,
+        long hits,
+        long misses,
+        long evictions,
+        long expirations) {
+}
@@ -0,0 +1,6 @@
+package com.example.sheetkv.model;
+
+import java.time.Instant;
+
+public record CompactionResult(String collection, int liveRows, int reclaimedRows, Instant compactedAt) {
+}
@@ -0,0 +1,8 @@
+package com.example.sheetkv.model;
+
+/** What an import does with an id that appears more than once in its input. */
+public enum DuplicatePolicy {
+    LAST_WINS,
+    FIRST_WINS,
+    REJECT
+}
@@ -4,5 +4,6 @@ import java.time.Instant;
 import java.util.List;
 import java.util.Map;
 
-public record FlushResult(int collections, int totalKeys, Map<String, List<String>> duplicates, Instant syncedAt) {
+public record FlushResult(int collections, int totalKeys, Map<String, List<String>> duplicates, Instant syncedAt,
+        Map<String, Long> collectionMillis, long totalMillis) {
 }
@@ -0,0 +1,5 @@
+package com.example.sheetkv.model;
+
+public record ImportResult(String collection, long lines, long created, long updated, long duplicates,
+        long skipped, int chunks, long millis) {
+}
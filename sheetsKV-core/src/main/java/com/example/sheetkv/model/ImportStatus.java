@@ -0,0 +1,7 @@
+package com.example.sheetkv.model;
+
+import java.time.Instant;
+
+public record ImportStatus(String id, String collection, Instant startedAt, long lines, long created,
+        long updated, long duplicates, long skipped, int chunks) {
+}
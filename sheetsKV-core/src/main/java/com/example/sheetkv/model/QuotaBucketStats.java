@@ -0,0 +1,8 @@
+package com.example.sheetkv.model;
+
+import java.util.Map;
+
+public record QuotaBucketStats(int perMinute, double availableTokens, int queueDepth,
+        Map<String, Integer> queuedByCollection, long acquired, long delayed, long totalWaitMillis,
+        long maxWaitMillis) {
+}
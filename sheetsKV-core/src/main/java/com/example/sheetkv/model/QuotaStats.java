@@ -0,0 +1,5 @@
+package com.example.sheetkv.model;
+
+public record QuotaStats(boolean enabled, QuotaBucketStats reads, QuotaBucketStats writes, long readCalls,
+        long writeCalls, long throttled, long serverErrors, long retries, long exhausted) {
+}
@@ -0,0 +1,8 @@
+package com.example.sheetkv.model;
+
+public record ReadStats(
+        long reads,
+        long coalesced,
+        long batches,
+        long batchedReads) {
+}
@@ -0,0 +1,17 @@
+package com.example.sheetkv.model;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.PositiveOrZero;
+
+/**
+ * Transaction operation. {@code PUT} needs a value and {@code CHECK} an expected version; with
+ * {@code expectedVersion} a {@code PUT} or {@code DELETE} also requires that version, {@code 0}
+ * meaning the key must not exist.
+ */
+public record TxnOperation(
+        @NotNull TxnOperationType op,
+        @NotBlank String id,
+        String value,
+        @PositiveOrZero Long expectedVersion) {
+}
@@ -0,0 +1,8 @@
+package com.example.sheetkv.model;
+
+/** What a transaction operation does with its key. */
+public enum TxnOperationType {
+    PUT,
+    DELETE,
+    CHECK
+}
@@ -0,0 +1,9 @@
+package com.example.sheetkv.model;
+
+import java.util.List;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+
+public record TxnRequest(@NotEmpty @Valid List<TxnOperation> operations) {
+}
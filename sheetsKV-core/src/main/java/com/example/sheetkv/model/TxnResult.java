@@ -0,0 +1,8 @@
+package com.example.sheetkv.model;
+
+import java.util.List;
+import java.util.Map;
+
+public record TxnResult(List<String> created, List<String> updated, List<String> deleted,
+        Map<String, Long> versions) {
+}
@@ -0,0 +1,5 @@
+package com.example.sheetkv.model;
+
+/** A value with the version of its key; the version is null for keys not yet indexed. */
+public record VersionedValue(String value, Long version) {
+}
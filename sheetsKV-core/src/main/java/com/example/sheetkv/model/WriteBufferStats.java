@@ -0,0 +1,12 @@
+package com.example.sheetkv.model;
+
+import java.time.Instant;
+
+public record WriteBufferStats(
+        long flushes,
+        long writesFlushed,
+        long writesCoalesced,
+        long failures,
+        int pending,
+        Instant lastFlushAt) {
+}
@@ -0,0 +1,184 @@
+package com.example.sheetkv.service;
+
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Service;
+
+import com.example.sheetkv.config.AsyncProperties;
+import com.example.sheetkv.config.AsyncProperties.ThreadMode;
+import com.example.sheetkv.exception.BackendException;
+import com.example.sheetkv.model.BatchDeleteResult;
+import com.example.sheetkv.model.BatchGetResult;
+import com.example.sheetkv.model.BatchUpsertResult;
+import com.example.sheetkv.model.KeyValueEntry;
+import com.example.sheetkv.model.PageResult;
+import com.example.sheetkv.model.TxnOperation;
+import com.example.sheetkv.model.TxnResult;
+import com.example.sheetkv.model.VersionedValue;
+
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * {@link KvService} with {@link CompletableFuture} results. An operation runs whole on one
+ * executor thread because collection locks and quota waits belong to the thread that takes
+ * them. On Java 21+ every operation gets its own virtual thread, so thousands of requests
+ * waiting on the spreadsheet need no platform threads; elsewhere a bounded platform pool is
+ * used. Reads that the index, the write buffer or the value cache can answer complete on the
+ * caller's thread.
+ */
+@Service
+public class AsyncKvService {
+    private static final Logger logger = LoggerFactory.getLogger(AsyncKvService.class);
+
+    private final KvService kvService;
+    private final ObservationRegistry observations;
+    private final ExecutorService executor;
+
+    public AsyncKvService(KvService kvService, AsyncProperties properties,
+            ObjectProvider<ObservationRegistry> observations) {
+        this.kvService = kvService;
+        this.observations = observations.getIfAvailable(() -> ObservationRegistry.NOOP);
+        this.executor = newExecutor(properties);
+    }
+
+    public CompletableFuture<VersionedValue> get(String collection, String id) {
+        VersionedValue loaded;
+        try {
+            loaded = kvService.peek(collection, id);
+        } catch (RuntimeException ex) {
+            return CompletableFuture.failedFuture(ex);
+        }
+        return loaded != null ? CompletableFuture.completedFuture(loaded)
+                : supply(() -> kvService.getVersioned(collection, id));
+    }
+
+    /** Version of a key from the index, without reading its value; completes on the caller's thread. */
+    public CompletableFuture<Long> getVersion(String collection, String id) {
+        try {
+            return CompletableFuture.completedFuture(kvService.getVersion(collection, id));
+        } catch (RuntimeException ex) {
+            return CompletableFuture.failedFuture(ex);
+        }
+    }
+
+    /** See {@link KvService#upsert(String, String, String, Long)}. */
+    public CompletableFuture<Long> upsert(String collection, String id, String value, Long expectedVersion) {
+        return supply(() -> kvService.upsert(collection, id, value, expectedVersion));
+    }
+
+    public CompletableFuture<Void> delete(String collection, String id, Long expectedVersion) {
+        return supply(() -> {
+            kvService.delete(collection, id, expectedVersion);
+            return null;
+        });
+    }
+
+    public CompletableFuture<PageResult<String>> listKeys(String collection, int limit, String cursor) {
+        return supply(() -> kvService.listKeys(collection, limit, cursor));
+    }
+
+    public CompletableFuture<PageResult<KeyValueEntry>> listEntries(String collection, int limit, String cursor) {
+        return supply(() -> kvService.listEntries(collection, limit, cursor));
+    }
+
+    public CompletableFuture<BatchGetResult> batchGet(String collection, List<String> ids) {
+        return supply(() -> kvService.batchGet(collection, ids));
+    }
+
+    public CompletableFuture<BatchUpsertResult> batchUpsert(String collection, List<KeyValueEntry> items,
+            Map<String, Long> expectedVersions) {
+        return supply(() -> kvService.batchUpsert(collection, items, expectedVersions));
+    }
+
+    public CompletableFuture<BatchDeleteResult> batchDelete(String collection, List<String> ids) {
+        return supply(() -> kvService.batchDelete(collection, ids));
+    }
+
+    public CompletableFuture<TxnResult> transact(String collection, List<TxnOperation> operations) {
+        return supply(() -> kvService.transact(collection, operations));
+    }
+
+    /** Runs a long task, such as an export, on the executor that runs key operations. */
+    public CompletableFuture<Void> run(Runnable task) {
+        return supply(() -> {
+            task.run();
+            return null;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            executor.shutdownNow();
+        }
+    }
+
+    /** Runs the call on the executor inside the caller's current observation, if any. */
+    private <T> CompletableFuture<T> supply(Supplier<T> call) {
+        Observation parent = observations.getCurrentObservation();
+        Supplier<T> task = parent == null ? call : () -> parent.scoped(call);
+        try {
+            return CompletableFuture.supplyAsync(task, executor);
+        } catch (RejectedExecutionException ex) {
+            return CompletableFuture.failedFuture(new BackendException("Too many requests in flight", ex));
+        }
+    }
+
+    private static ExecutorService newExecutor(AsyncProperties properties) {
+        if (properties.getThreads() != ThreadMode.PLATFORM) {
+            ExecutorService virtual = virtualThreadExecutor();
+            if (virtual != null) {
+                logger.info("async.executor threads=virtual");
+                return virtual;
+            }
+            if (properties.getThreads() == ThreadMode.VIRTUAL) {
+                logger.warn("async.executor virtual threads need Java 21+, runtime={}; using platform threads",
+                        Runtime.version().feature());
+            }
+        }
+        int poolSize = Math.max(1, properties.getPoolSize());
+        AtomicInteger threads = new AtomicInteger();
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(poolSize, poolSize, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(Math.max(1, properties.getQueueCapacity())), runnable -> {
+                    Thread thread = new Thread(runnable, "sheetkv-async-" + threads.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        pool.allowCoreThreadTimeOut(true);
+        logger.info("async.executor threads=platform poolSize={} queueCapacity={}", poolSize,
+                properties.getQueueCapacity());
+        return pool;
+    }
+
+    /** {@code Executors.newVirtualThreadPerTaskExecutor()} when the runtime has it, so the build stays on Java 17. */
+    private static ExecutorService virtualThreadExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException ex) {
+            return null;
+        }
+    }
+}
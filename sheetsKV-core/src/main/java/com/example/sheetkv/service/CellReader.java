@@ -0,0 +1,145 @@
+package com.example.sheetkv.service;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.stereotype.Component;
+
+import com.example.sheetkv.adapter.SheetBackend;
+import com.example.sheetkv.adapter.SheetRow;
+import com.example.sheetkv.config.ReadProperties;
+import com.example.sheetkv.exception.BackendException;
+import com.example.sheetkv.model.ReadStats;
+
+/**
+ * Reads single rows with two layers of sharing: concurrent reads of the same key at the same
+ * version join one in-flight read, and reads of different rows of a collection that arrive
+ * within {@code sheet.reads.batchWindow} are sent as one multi-range read by the first caller.
+ * The row is returned with its id so callers can tell whether the key still lives there.
+ */
+@Component
+public class CellReader {
+    private final SheetBackend adapter;
+    private final long windowNanos;
+    private final int maxBatchSize;
+    private final Map<CellKey, CompletableFuture<SheetRow>> inFlight = new ConcurrentHashMap<>();
+    private final Map<String, Batch> openBatches = new HashMap<>();
+    private final ReentrantLock batchLock = new ReentrantLock();
+    private final Condition batchClosed = batchLock.newCondition();
+    private final AtomicLong reads = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong batchedReads = new AtomicLong();
+
+    public CellReader(SheetBackend adapter, ReadProperties properties) {
+        this.adapter = adapter;
+        this.windowNanos = properties.getBatchWindow() == null ? 0 : properties.getBatchWindow().toNanos();
+        this.maxBatchSize = Math.max(1, properties.getMaxBatchSize());
+    }
+
+    /**
+     * Reads the row the index holds for the key at {@code version}. Reads join only reads of the
+     * same key, row and version, so a read never returns data from before a write its caller
+     * has seen. Returns null when the row is past the end of the sheet.
+     */
+    public SheetRow read(String collection, String id, int row, Long version) {
+        reads.incrementAndGet();
+        CellKey key = new CellKey(collection, id, row, version);
+        CompletableFuture<SheetRow> future = new CompletableFuture<>();
+        CompletableFuture<SheetRow> existing = inFlight.putIfAbsent(key, future);
+        if (existing != null) {
+            coalesced.incrementAndGet();
+            return await(existing);
+        }
+        if (windowNanos <= 0 || maxBatchSize == 1) {
+            execute(collection, Map.of(key, future));
+            return await(future);
+        }
+        Batch batch;
+        boolean leader = false;
+        batchLock.lock();
+        try {
+            batch = openBatches.get(collection);
+            if (batch == null) {
+                batch = new Batch();
+                openBatches.put(collection, batch);
+                leader = true;
+            }
+            batch.futures.put(key, future);
+            if (batch.futures.size() >= maxBatchSize) {
+                openBatches.remove(collection);
+                batchClosed.signalAll();
+            }
+        } finally {
+            batchLock.unlock();
+        }
+        if (leader) {
+            Map<CellKey, CompletableFuture<SheetRow>> futures = awaitBatch(collection, batch);
+            execute(collection, futures);
+        }
+        return await(future);
+    }
+
+    public ReadStats getStats() {
+        return new ReadStats(reads.get(), coalesced.get(), batches.get(), batchedReads.get());
+    }
+
+    private Map<CellKey, CompletableFuture<SheetRow>> awaitBatch(String collection, Batch batch) {
+        long deadline = System.nanoTime() + windowNanos;
+        batchLock.lock();
+        try {
+            long remaining;
+            while (openBatches.get(collection) == batch && (remaining = deadline - System.nanoTime()) > 0) {
+                batchClosed.awaitNanos(remaining);
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } finally {
+            openBatches.remove(collection, batch);
+            batchLock.unlock();
+        }
+        return new LinkedHashMap<>(batch.futures);
+    }
+
+    private void execute(String collection, Map<CellKey, CompletableFuture<SheetRow>> futures) {
+        batches.incrementAndGet();
+        batchedReads.addAndGet(futures.size());
+        try {
+            Set<Integer> rows = new HashSet<>();
+            futures.keySet().forEach(key -> rows.add(key.row()));
+            Map<Integer, SheetRow> values = adapter.readRows(collection, rows);
+            futures.forEach((key, future) -> future.complete(values.get(key.row())));
+        } catch (RuntimeException ex) {
+            futures.values().forEach(future -> future.completeExceptionally(ex));
+        } finally {
+            futures.forEach(inFlight::remove);
+        }
+    }
+
+    private static SheetRow await(CompletableFuture<SheetRow> future) {
+        try {
+            return future.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new BackendException("Failed to read cell", ex.getCause());
+        }
+    }
+
+    private record CellKey(String collection, String id, int row, Long version) {
+    }
+
+    private static final class Batch {
+        private final Map<CellKey, CompletableFuture<SheetRow>> futures = new LinkedHashMap<>();
+    }
+}
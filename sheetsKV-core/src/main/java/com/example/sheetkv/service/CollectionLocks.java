@@ -0,0 +1,65 @@
+package com.example.sheetkv.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+import org.springframework.stereotype.Component;
+
+@Component
+public class CollectionLocks {
+    private final Map<String, ReentrantReadWriteLock> locks = new ConcurrentHashMap<>();
+
+    public <T> T shared(String collection, Supplier<T> action) {
+        return withLock(lockFor(collection).readLock(), action);
+    }
+
+    public <T> T sharedAll(Collection<String> collections, Supplier<T> action) {
+        return withAll(collections, false, action);
+    }
+
+    public <T> T exclusive(String collection, Supplier<T> action) {
+        return withLock(lockFor(collection).writeLock(), action);
+    }
+
+    public <T> T exclusiveAll(Collection<String> collections, Supplier<T> action) {
+        return withAll(collections, true, action);
+    }
+
+    /** Locks are taken in name order so callers locking several collections cannot deadlock. */
+    private <T> T withAll(Collection<String> collections, boolean exclusive, Supplier<T> action) {
+        List<Lock> acquired = new ArrayList<>();
+        try {
+            for (String collection : new TreeSet<>(collections)) {
+                ReentrantReadWriteLock readWrite = lockFor(collection);
+                Lock lock = exclusive ? readWrite.writeLock() : readWrite.readLock();
+                lock.lock();
+                acquired.add(lock);
+            }
+            return action.get();
+        } finally {
+            for (int i = acquired.size() - 1; i >= 0; i--) {
+                acquired.get(i).unlock();
+            }
+        }
+    }
+
+    private ReentrantReadWriteLock lockFor(String collection) {
+        return locks.computeIfAbsent(collection, key -> new ReentrantReadWriteLock());
+    }
+
+    private static <T> T withLock(Lock lock, Supplier<T> action) {
+        lock.lock();
+        try {
+            return action.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
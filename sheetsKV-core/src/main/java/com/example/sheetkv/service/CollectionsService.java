@@ -4,23 +4,31 @@ import java.util.List;
 
 import org.springframework.stereotype.Service;
 
-import com.example.sheetkv.adapter.SheetsAdapter;
+import com.example.sheetkv.adapter.SheetBackend;
+import com.example.sheetkv.adapter.SheetInfo;
 import com.example.sheetkv.exception.ConflictException;
 import com.example.sheetkv.exception.NotFoundException;
 
 @Service
 public class CollectionsService {
-    private final SheetsAdapter adapter;
+    private final SheetBackend adapter;
     private final IndexStore indexStore;
+    private final WriteBuffer writeBuffer;
+    private final ValueCache valueCache;
+    private final RowAllocator rowAllocator;
 
-    public CollectionsService(SheetsAdapter adapter, IndexStore indexStore) {
+    public CollectionsService(SheetBackend adapter, IndexStore indexStore, WriteBuffer writeBuffer,
+            ValueCache valueCache, RowAllocator rowAllocator) {
         this.adapter = adapter;
         this.indexStore = indexStore;
+        this.writeBuffer = writeBuffer;
+        this.valueCache = valueCache;
+        this.rowAllocator = rowAllocator;
     }
 
     public List<String> list() {
-        return adapter.listSheets().stream()
-                .map(sheet -> sheet.getProperties().getTitle())
+        return adapter.getSheetInfos().stream()
+                .map(SheetInfo::title)
                 .toList();
     }
 
@@ -30,14 +38,18 @@ public class CollectionsService {
         }
         adapter.createSheet(name);
         indexStore.ensureCollection(name);
+        rowAllocator.seed(name, 1);
     }
 
     public void delete(String name) {
         if (!list().contains(name)) {
             throw new NotFoundException("Collection not found");
         }
+        writeBuffer.discardCollection(name);
         adapter.deleteSheet(name);
         indexStore.removeCollection(name);
+        valueCache.invalidateCollection(name);
+        rowAllocator.removeCollection(name);
     }
 
     public void rename(String oldName, String newName) {
@@ -48,7 +60,10 @@ public class CollectionsService {
         if (names.contains(newName)) {
             throw new ConflictException("Collection already exists");
         }
+        writeBuffer.drain();
         adapter.renameSheet(oldName, newName);
         indexStore.renameCollection(oldName, newName);
+        valueCache.invalidateCollection(oldName);
+        rowAllocator.renameCollection(oldName, newName);
     }
 }
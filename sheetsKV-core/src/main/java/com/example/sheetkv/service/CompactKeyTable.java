@@ -0,0 +1,225 @@
+package com.example.sheetkv.service;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * Key table without per-key objects. Keys are stored length-prefixed as UTF-8 in a single
+ * byte arena (heap or direct memory) and found through an open-addressing table made of
+ * parallel {@code int} arrays.
+ */
+final class CompactKeyTable implements KeyTable {
+    private static final int EMPTY = -1;
+    private static final int DELETED = -2;
+    private static final int MIN_CAPACITY = 16;
+
+    private final boolean offHeap;
+    private ByteBuffer arena;
+    private int arenaUsed;
+    private int garbageBytes;
+
+    private int[] offsets;
+    private int[] hashes;
+    private int[] slots;
+    private int occupied;
+    private int live;
+
+    private int[] offsetBySlot = new int[MIN_CAPACITY];
+
+    CompactKeyTable(boolean offHeap) {
+        this.offHeap = offHeap;
+        this.arena = allocate(1024);
+        initTable(MIN_CAPACITY);
+        Arrays.fill(offsetBySlot, EMPTY);
+    }
+
+    @Override
+    public int slotOf(String id) {
+        byte[] key = id.getBytes(StandardCharsets.UTF_8);
+        int index = find(key, hash(key));
+        return index < 0 ? NO_SLOT : slots[index];
+    }
+
+    @Override
+    public String idAt(int slot) {
+        if (slot >= offsetBySlot.length || offsetBySlot[slot] < 0) {
+            return null;
+        }
+        return decode(offsetBySlot[slot]);
+    }
+
+    @Override
+    public void put(String id, int slot) {
+        byte[] key = id.getBytes(StandardCharsets.UTF_8);
+        int hash = hash(key);
+        int existing = find(key, hash);
+        if (existing >= 0) {
+            offsetBySlot[slots[existing]] = EMPTY;
+            slots[existing] = slot;
+            setSlotOffset(slot, offsets[existing]);
+            return;
+        }
+        if ((occupied + 1) * 10 > offsets.length * 6) {
+            rehash(Math.max(MIN_CAPACITY, Integer.highestOneBit(Math.max(1, live * 2 - 1)) << 1));
+        }
+        int offset = append(key);
+        int mask = offsets.length - 1;
+        int index = hash & mask;
+        while (offsets[index] >= 0) {
+            index = (index + 1) & mask;
+        }
+        if (offsets[index] == EMPTY) {
+            occupied++;
+        }
+        offsets[index] = offset;
+        hashes[index] = hash;
+        slots[index] = slot;
+        live++;
+        setSlotOffset(slot, offset);
+    }
+
+    @Override
+    public int remove(String id) {
+        byte[] key = id.getBytes(StandardCharsets.UTF_8);
+        int index = find(key, hash(key));
+        if (index < 0) {
+            return NO_SLOT;
+        }
+        int slot = slots[index];
+        garbageBytes += Integer.BYTES + key.length;
+        offsets[index] = DELETED;
+        offsetBySlot[slot] = EMPTY;
+        live--;
+        if (garbageBytes > 64 * 1024 && garbageBytes > arenaUsed / 2) {
+            compactArena();
+        }
+        return slot;
+    }
+
+    @Override
+    public int size() {
+        return live;
+    }
+
+    @Override
+    public void forEach(ObjIntConsumer<String> action) {
+        for (int i = 0; i < offsets.length; i++) {
+            if (offsets[i] >= 0) {
+                action.accept(decode(offsets[i]), slots[i]);
+            }
+        }
+    }
+
+    private int find(byte[] key, int hash) {
+        int mask = offsets.length - 1;
+        int index = hash & mask;
+        while (offsets[index] != EMPTY) {
+            if (offsets[index] >= 0 && hashes[index] == hash && keyEquals(offsets[index], key)) {
+                return index;
+            }
+            index = (index + 1) & mask;
+        }
+        return -1;
+    }
+
+    private boolean keyEquals(int offset, byte[] key) {
+        if (arena.getInt(offset) != key.length) {
+            return false;
+        }
+        int start = offset + Integer.BYTES;
+        for (int i = 0; i < key.length; i++) {
+            if (arena.get(start + i) != key[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private String decode(int offset) {
+        byte[] key = new byte[arena.getInt(offset)];
+        arena.get(offset + Integer.BYTES, key);
+        return new String(key, StandardCharsets.UTF_8);
+    }
+
+    private int append(byte[] key) {
+        int needed = Integer.BYTES + key.length;
+        if (arenaUsed + needed > arena.capacity()) {
+            long capacity = Math.max((long) arena.capacity() * 2, (long) arenaUsed + needed);
+            ByteBuffer grown = allocate((int) Math.min(Integer.MAX_VALUE - 8, capacity));
+            grown.put(0, arena, 0, arenaUsed);
+            arena = grown;
+        }
+        int offset = arenaUsed;
+        arena.putInt(offset, key.length);
+        arena.put(offset + Integer.BYTES, key);
+        arenaUsed += needed;
+        return offset;
+    }
+
+    private void setSlotOffset(int slot, int offset) {
+        if (slot >= offsetBySlot.length) {
+            int oldLength = offsetBySlot.length;
+            offsetBySlot = Arrays.copyOf(offsetBySlot, Math.max(slot + 1, oldLength * 2));
+            Arrays.fill(offsetBySlot, oldLength, offsetBySlot.length, EMPTY);
+        }
+        offsetBySlot[slot] = offset;
+    }
+
+    private void rehash(int capacity) {
+        int[] oldOffsets = offsets;
+        int[] oldHashes = hashes;
+        int[] oldSlots = slots;
+        initTable(capacity);
+        int mask = capacity - 1;
+        for (int i = 0; i < oldOffsets.length; i++) {
+            if (oldOffsets[i] < 0) {
+                continue;
+            }
+            int index = oldHashes[i] & mask;
+            while (offsets[index] != EMPTY) {
+                index = (index + 1) & mask;
+            }
+            offsets[index] = oldOffsets[i];
+            hashes[index] = oldHashes[i];
+            slots[index] = oldSlots[i];
+            occupied++;
+        }
+    }
+
+    private void compactArena() {
+        ByteBuffer compacted = allocate(Math.max(1024, arenaUsed - garbageBytes));
+        int used = 0;
+        for (int i = 0; i < offsets.length; i++) {
+            if (offsets[i] < 0) {
+                continue;
+            }
+            int length = Integer.BYTES + arena.getInt(offsets[i]);
+            compacted.put(used, arena, offsets[i], length);
+            offsets[i] = used;
+            offsetBySlot[slots[i]] = used;
+            used += length;
+        }
+        arena = compacted;
+        arenaUsed = used;
+        garbageBytes = 0;
+    }
+
+    private void initTable(int capacity) {
+        offsets = new int[capacity];
+        hashes = new int[capacity];
+        slots = new int[capacity];
+        Arrays.fill(offsets, EMPTY);
+        occupied = 0;
+    }
+
+    private ByteBuffer allocate(int capacity) {
+        return offHeap ? ByteBuffer.allocateDirect(capacity) : ByteBuffer.allocate(capacity);
+    }
+
+    private static int hash(byte[] key) {
+        int hash = Arrays.hashCode(key);
+        return hash ^ (hash >>> 16);
+    }
+}
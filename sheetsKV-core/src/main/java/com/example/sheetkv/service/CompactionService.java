@@ -0,0 +1,108 @@
+package com.example.sheetkv.service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import com.example.sheetkv.adapter.CellRange;
+import com.example.sheetkv.adapter.SheetBackend;
+import com.example.sheetkv.adapter.SheetRow;
+import com.example.sheetkv.config.DeleteProperties;
+import com.example.sheetkv.exception.NotFoundException;
+import com.example.sheetkv.model.CompactionResult;
+
+import io.micrometer.observation.annotation.Observed;
+import jakarta.annotation.PreDestroy;
+
+@Service
+public class CompactionService {
+    private static final Logger logger = LoggerFactory.getLogger(CompactionService.class);
+
+    private final SheetBackend adapter;
+    private final IndexStore indexStore;
+    private final RowAllocator rowAllocator;
+    private final CollectionLocks collectionLocks;
+    private final ScheduledExecutorService scheduler;
+
+    public CompactionService(SheetBackend adapter, IndexStore indexStore, RowAllocator rowAllocator,
+            CollectionLocks collectionLocks, DeleteProperties properties) {
+        this.adapter = adapter;
+        this.indexStore = indexStore;
+        this.rowAllocator = rowAllocator;
+        this.collectionLocks = collectionLocks;
+        if (properties.isTombstone() && properties.getCompactionInterval() != null) {
+            long intervalMs = properties.getCompactionInterval().toMillis();
+            this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "sheetkv-compaction");
+                thread.setDaemon(true);
+                return thread;
+            });
+            this.scheduler.scheduleWithFixedDelay(this::compactAllQuietly, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+        } else {
+            this.scheduler = null;
+        }
+    }
+
+    @Observed(name = "sheetkv.compaction", contextualName = "compaction")
+    public CompactionResult compact(String collection) {
+        if (!indexStore.hasCollection(collection)) {
+            throw new NotFoundException("Collection not found");
+        }
+        return collectionLocks.exclusive(collection, () -> {
+            List<SheetRow> rows = adapter.readSheetRows(collection);
+            List<List<String>> live = new ArrayList<>();
+            Map<String, Integer> index = new HashMap<>();
+            for (SheetRow row : rows) {
+                if (row.id() == null || row.id().isBlank()) {
+                    continue;
+                }
+                live.add(List.of(row.id(), row.value() == null ? "" : row.value()));
+                index.putIfAbsent(row.id(), live.size());
+            }
+            int liveRows = live.size();
+            int reclaimed = rows.size() - liveRows;
+            if (reclaimed > 0) {
+                // Blanks for the tail go in the same call, so the sheet never holds a rewritten
+                // head next to a stale tail that still repeats its keys.
+                List<List<String>> values = new ArrayList<>(live);
+                for (int i = liveRows; i < rows.size(); i++) {
+                    values.add(List.of("", ""));
+                }
+                adapter.batchUpdateValues(List.of(CellRange.rows(collection, 1, values)));
+            }
+            indexStore.replaceCollection(collection, index, true);
+            rowAllocator.seed(collection, liveRows + 1);
+            logger.info("compaction.done collection={} live={} reclaimed={}", collection, liveRows, reclaimed);
+            return new CompactionResult(collection, liveRows, reclaimed, Instant.now());
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    private void compactAllQuietly() {
+        for (String collection : indexStore.getCollectionNames()) {
+            if (rowAllocator.freeCount(collection) == 0) {
+                continue;
+            }
+            try {
+                compact(collection);
+            } catch (Exception ex) {
+                logger.error("compaction.failed collection={}", collection, ex);
+            }
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.sheetkv.service;
+
+import java.util.Arrays;
+
+final class FenwickTree {
+    private int[] values;
+    private int[] tree;
+    private int size;
+    private int total;
+
+    FenwickTree(int capacity) {
+        this.values = new int[capacity + 1];
+        this.tree = new int[capacity + 1];
+    }
+
+    int size() {
+        return size;
+    }
+
+    int total() {
+        return total;
+    }
+
+    int get(int index) {
+        return values[index];
+    }
+
+    void append(int value) {
+        if (size + 1 >= values.length) {
+            grow(Math.max(16, values.length * 2));
+        }
+        size++;
+        values[size] = 0;
+        tree[size] = 0;
+        int lowBit = size & -size;
+        for (int child = size - 1; child > size - lowBit; child -= child & -child) {
+            tree[size] += tree[child];
+        }
+        set(size, value);
+    }
+
+    void set(int index, int value) {
+        int delta = value - values[index];
+        if (delta == 0) {
+            return;
+        }
+        values[index] = value;
+        total += delta;
+        for (int i = index; i <= size; i += i & -i) {
+            tree[i] += delta;
+        }
+    }
+
+    int prefix(int index) {
+        int sum = 0;
+        for (int i = Math.min(index, size); i > 0; i -= i & -i) {
+            sum += tree[i];
+        }
+        return sum;
+    }
+
+    /**
+     * Returns the smallest index whose prefix sum reaches {@code k}, or {@code -1} when
+     * the total is smaller than {@code k}.
+     */
+    int findKth(int k) {
+        if (k <= 0 || k > total) {
+            return -1;
+        }
+        int position = 0;
+        int remaining = k;
+        for (int step = Integer.highestOneBit(Math.max(size, 1)); step > 0; step >>= 1) {
+            int next = position + step;
+            if (next <= size && tree[next] < remaining) {
+                position = next;
+                remaining -= tree[next];
+            }
+        }
+        return position + 1;
+    }
+
+    private void grow(int capacity) {
+        values = Arrays.copyOf(values, capacity + 1);
+        tree = Arrays.copyOf(tree, capacity + 1);
+    }
+}
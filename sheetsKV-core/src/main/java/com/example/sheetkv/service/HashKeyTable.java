@@ -0,0 +1,51 @@
+package com.example.sheetkv.service;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.ObjIntConsumer;
+
+final class HashKeyTable implements KeyTable {
+    private final Map<String, Integer> slotById = new HashMap<>();
+    private String[] idBySlot = new String[16];
+
+    @Override
+    public int slotOf(String id) {
+        Integer slot = slotById.get(id);
+        return slot == null ? NO_SLOT : slot;
+    }
+
+    @Override
+    public String idAt(int slot) {
+        return slot < idBySlot.length ? idBySlot[slot] : null;
+    }
+
+    @Override
+    public void put(String id, int slot) {
+        if (slot >= idBySlot.length) {
+            idBySlot = Arrays.copyOf(idBySlot, Math.max(slot + 1, idBySlot.length * 2));
+        }
+        idBySlot[slot] = id;
+        slotById.put(id, slot);
+    }
+
+    @Override
+    public int remove(String id) {
+        Integer slot = slotById.remove(id);
+        if (slot == null) {
+            return NO_SLOT;
+        }
+        idBySlot[slot] = null;
+        return slot;
+    }
+
+    @Override
+    public int size() {
+        return slotById.size();
+    }
+
+    @Override
+    public void forEach(ObjIntConsumer<String> action) {
+        slotById.forEach(action::accept);
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.sheetkv.service;
+
+import java.util.List;
+import java.util.Map;
+
+/** Keys of one page with their rows, and the cursor of the next page or {@code null} at the end. */
+public record IndexPage(List<Map.Entry<String, Integer>> entries, PageCursor next) {
+}
@@ -0,0 +1,132 @@
+package com.example.sheetkv.service;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Binary index snapshot: a header, one section per collection and a trailing CRC32 over
+ * everything before it. Files are written to a temporary sibling and moved into place, and
+ * read through a read-only memory mapping.
+ */
+final class IndexSnapshotFile {
+    private static final int MAGIC = 0x534B5631;
+    private static final int VERSION = 1;
+
+    private IndexSnapshotFile() {
+    }
+
+    static void write(Path path, Snapshot snapshot) throws IOException {
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (OutputStream file = Files.newOutputStream(temp)) {
+            CheckedOutputStream checked = new CheckedOutputStream(new BufferedOutputStream(file, 1 << 16), new CRC32());
+            DataOutputStream out = new DataOutputStream(checked);
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(snapshot.createdAt().toEpochMilli());
+            writeString(out, snapshot.spreadsheetId());
+            out.writeInt(snapshot.collections().size());
+            for (CollectionSnapshot collection : snapshot.collections()) {
+                writeString(out, collection.title());
+                out.writeInt(collection.sheetId());
+                out.writeInt(collection.rowCount());
+                out.writeInt(collection.nextRow());
+                out.writeInt(collection.freeRows().size());
+                for (int row : collection.freeRows()) {
+                    out.writeInt(row);
+                }
+                out.writeInt(collection.rows().size());
+                for (Map.Entry<String, Integer> entry : collection.rows().entrySet()) {
+                    writeString(out, entry.getKey());
+                    out.writeInt(entry.getValue());
+                }
+            }
+            out.flush();
+            new DataOutputStream(file).writeLong(checked.getChecksum().getValue());
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    static Snapshot read(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < Long.BYTES + 2 * Integer.BYTES || size > Integer.MAX_VALUE) {
+                throw new IOException("Snapshot has invalid size " + size);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            int bodyLength = (int) size - Long.BYTES;
+            CRC32 crc = new CRC32();
+            crc.update(buffer.slice(0, bodyLength));
+            if (crc.getValue() != buffer.getLong(bodyLength)) {
+                throw new IOException("Snapshot checksum mismatch");
+            }
+            ByteBuffer body = buffer.slice(0, bodyLength);
+            if (body.getInt() != MAGIC || body.getInt() != VERSION) {
+                throw new IOException("Unsupported snapshot format");
+            }
+            Instant createdAt = Instant.ofEpochMilli(body.getLong());
+            String spreadsheetId = readString(body);
+            int collectionCount = body.getInt();
+            List<CollectionSnapshot> collections = new ArrayList<>(collectionCount);
+            for (int i = 0; i < collectionCount; i++) {
+                String title = readString(body);
+                int sheetId = body.getInt();
+                int rowCount = body.getInt();
+                int nextRow = body.getInt();
+                int freeCount = body.getInt();
+                List<Integer> freeRows = new ArrayList<>(freeCount);
+                for (int j = 0; j < freeCount; j++) {
+                    freeRows.add(body.getInt());
+                }
+                int entryCount = body.getInt();
+                Map<String, Integer> rows = new HashMap<>(entryCount * 2);
+                for (int j = 0; j < entryCount; j++) {
+                    rows.put(readString(body), body.getInt());
+                }
+                collections.add(new CollectionSnapshot(title, sheetId, rowCount, nextRow, freeRows, rows));
+            }
+            return new Snapshot(spreadsheetId, createdAt, collections);
+        } catch (RuntimeException ex) {
+            throw new IOException("Snapshot is truncated or corrupt", ex);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    record Snapshot(String spreadsheetId, Instant createdAt, List<CollectionSnapshot> collections) {
+    }
+
+    record CollectionSnapshot(String title, int sheetId, int rowCount, int nextRow, List<Integer> freeRows,
+            Map<String, Integer> rows) {
+    }
+}
@@ -0,0 +1,235 @@
+package com.example.sheetkv.service;
+
+import java.io.IOException;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import com.example.sheetkv.adapter.SheetBackend;
+import com.example.sheetkv.adapter.SheetInfo;
+import com.example.sheetkv.config.IndexProperties;
+import com.example.sheetkv.config.SheetProperties;
+import com.example.sheetkv.service.IndexSnapshotFile.CollectionSnapshot;
+import com.example.sheetkv.service.IndexSnapshotFile.Snapshot;
+
+import jakarta.annotation.PreDestroy;
+
+@Service
+public class IndexSnapshotService {
+    private static final Logger logger = LoggerFactory.getLogger(IndexSnapshotService.class);
+
+    private final SheetBackend adapter;
+    private final IndexStore indexStore;
+    private final RowAllocator rowAllocator;
+    private final CollectionLocks collectionLocks;
+    private final WriteBuffer writeBuffer;
+    private final ValueCache valueCache;
+    private final SyncService syncService;
+    private final SheetProperties sheetProperties;
+    private final Path path;
+    private final ScheduledExecutorService scheduler;
+    private volatile boolean indexLoaded;
+
+    public IndexSnapshotService(SheetBackend adapter, IndexStore indexStore, RowAllocator rowAllocator,
+            CollectionLocks collectionLocks, WriteBuffer writeBuffer, ValueCache valueCache, SyncService syncService,
+            SheetProperties sheetProperties, IndexProperties properties) {
+        this.adapter = adapter;
+        this.indexStore = indexStore;
+        this.rowAllocator = rowAllocator;
+        this.collectionLocks = collectionLocks;
+        this.writeBuffer = writeBuffer;
+        this.valueCache = valueCache;
+        this.syncService = syncService;
+        this.sheetProperties = sheetProperties;
+        if (properties.isSnapshotEnabled()) {
+            this.path = Path.of(properties.getSnapshotPath());
+            this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "sheetkv-snapshot");
+                thread.setDaemon(true);
+                return thread;
+            });
+            if (properties.getSnapshotInterval() != null) {
+                long intervalMs = properties.getSnapshotInterval().toMillis();
+                this.scheduler.scheduleWithFixedDelay(this::saveQuietly, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+            }
+        } else {
+            this.path = null;
+            this.scheduler = null;
+        }
+    }
+
+    public boolean isEnabled() {
+        return path != null;
+    }
+
+    public boolean restore() {
+        if (!isEnabled()) {
+            return false;
+        }
+        Snapshot snapshot;
+        try {
+            snapshot = IndexSnapshotFile.read(path);
+        } catch (NoSuchFileException ex) {
+            logger.info("snapshot.missing path={}", path);
+            return false;
+        } catch (IOException ex) {
+            logger.warn("snapshot.unreadable path={} reason={}", path, ex.getMessage());
+            return false;
+        }
+        if (!Objects.equals(snapshot.spreadsheetId(), sheetProperties.getSpreadsheetId())) {
+            logger.warn("snapshot.mismatch path={} spreadsheet={}", path, snapshot.spreadsheetId());
+            return false;
+        }
+
+        Map<String, CollectionSnapshot> byTitle = new HashMap<>();
+        snapshot.collections().forEach(collection -> byTitle.put(collection.title(), collection));
+        Map<String, CollectionSnapshot> loaded = new HashMap<>();
+        Map<String, int[]> tails = new HashMap<>();
+        List<String> stale = new ArrayList<>();
+        for (SheetInfo sheet : adapter.refreshMetadata()) {
+            CollectionSnapshot collection = byTitle.get(sheet.title());
+            if (collection == null || collection.sheetId() != sheet.sheetId()
+                    || collection.rowCount() != sheet.rowCount()) {
+                stale.add(sheet.title());
+                continue;
+            }
+            loaded.put(sheet.title(), collection);
+            tails.put(sheet.title(), new int[] { Math.max(1, collection.nextRow() - 1), collection.nextRow() });
+        }
+        Map<String, List<String>> tailIds = tails.isEmpty() ? Map.of() : adapter.readColumnA(tails);
+        tailIds.forEach((title, ids) -> {
+            if (!tailMatches(loaded.get(title), ids)) {
+                loaded.remove(title);
+                stale.add(title);
+            }
+        });
+        for (String title : List.copyOf(loaded.keySet())) {
+            if (!freeRowsBlank(title, loaded.get(title))) {
+                loaded.remove(title);
+                stale.add(title);
+            }
+        }
+
+        Map<String, Map<String, Integer>> rows = new HashMap<>();
+        Map<String, Integer> nextRows = new HashMap<>();
+        Map<String, List<Integer>> freeRows = new HashMap<>();
+        loaded.forEach((title, collection) -> {
+            rows.put(title, collection.rows());
+            nextRows.put(title, collection.nextRow());
+            freeRows.put(title, collection.freeRows());
+        });
+        indexStore.rebuild(rows);
+        rowAllocator.reset(nextRows, freeRows);
+        valueCache.clear();
+        try {
+            stale.forEach(syncService::reindex);
+        } catch (RuntimeException ex) {
+            logger.warn("snapshot.reindex failed stale={} reason={}", stale, ex.getMessage());
+            return false;
+        }
+        syncService.markSynced(snapshot.createdAt());
+        indexLoaded = true;
+        logger.info("snapshot.restored path={} collections={} reindexed={} createdAt={}",
+                path, loaded.size(), stale.size(), snapshot.createdAt());
+        return true;
+    }
+
+    public void save() {
+        if (!isEnabled()) {
+            return;
+        }
+        indexLoaded = true;
+        List<CollectionSnapshot> collections = new ArrayList<>();
+        for (SheetInfo sheet : adapter.refreshMetadata()) {
+            String title = sheet.title();
+            CollectionSnapshot collection = collectionLocks.exclusive(title, () -> {
+                int nextRow = rowAllocator.trackedNextRow(title);
+                Map<String, Integer> rows = indexStore.getCollection(title);
+                if (nextRow == 0 || rows == null) {
+                    return null;
+                }
+                return new CollectionSnapshot(title, sheet.sheetId(), sheet.rowCount(), nextRow,
+                        rowAllocator.freeRows(title), rows);
+            });
+            if (collection != null) {
+                collections.add(collection);
+            }
+        }
+        Snapshot snapshot = new Snapshot(sheetProperties.getSpreadsheetId(), Instant.now(), collections);
+        try {
+            synchronized (this) {
+                IndexSnapshotFile.write(path, snapshot);
+            }
+        } catch (IOException ex) {
+            logger.error("snapshot.write failed path={}", path, ex);
+            return;
+        }
+        logger.info("snapshot.saved path={} collections={}", path, collections.size());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (scheduler == null) {
+            return;
+        }
+        scheduler.shutdownNow();
+        if (indexLoaded) {
+            writeBuffer.drain();
+            saveQuietly();
+        }
+    }
+
+    private void saveQuietly() {
+        if (!indexLoaded) {
+            return;
+        }
+        try {
+            save();
+        } catch (Exception ex) {
+            logger.error("snapshot.save failed path={}", path, ex);
+        }
+    }
+
+    /**
+     * Rows freed by tombstone deletes must still be blank: one written after the snapshot was
+     * taken would otherwise be handed out again and overwritten.
+     */
+    private boolean freeRowsBlank(String title, CollectionSnapshot collection) {
+        if (collection.freeRows().isEmpty()) {
+            return true;
+        }
+        return adapter.readRows(title, collection.freeRows()).values().stream()
+                .allMatch(row -> row.id() == null || row.id().isBlank());
+    }
+
+    private static boolean tailMatches(CollectionSnapshot collection, List<String> ids) {
+        int nextRow = collection.nextRow();
+        if (nextRow <= 1) {
+            return ids.get(0).isBlank();
+        }
+        int lastRow = nextRow - 1;
+        String expected = collection.freeRows().contains(lastRow) ? "" : idAt(collection.rows(), lastRow);
+        return ids.get(0).equals(expected) && ids.get(1).isBlank();
+    }
+
+    private static String idAt(Map<String, Integer> rows, int row) {
+        for (Map.Entry<String, Integer> entry : rows.entrySet()) {
+            if (entry.getValue() == row) {
+                return entry.getKey();
+            }
+        }
+        return "";
+    }
+}
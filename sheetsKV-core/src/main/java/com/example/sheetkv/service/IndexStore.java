@@ -1,46 +1,175 @@
 package com.example.sheetkv.service;
 
-import java.util.HashMap;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
 
 import org.springframework.stereotype.Component;
 
+import com.example.sheetkv.config.IndexProperties;
+import com.example.sheetkv.config.IndexProperties.KeyTableType;
+
 @Component
 public class IndexStore {
-    private Map<String, Map<String, Integer>> index = new HashMap<>();
+    private final KeyTableType keyTableType;
+    private volatile ConcurrentHashMap<String, CollectionIndex> index = new ConcurrentHashMap<>();
+
+    public IndexStore(IndexProperties properties) {
+        this.keyTableType = properties.getKeyTable();
+    }
 
     public Integer getRow(String collection, String id) {
-        Map<String, Integer> map = index.get(collection);
-        return map == null ? null : map.get(id);
+        CollectionIndex collectionIndex = index.get(collection);
+        return collectionIndex == null ? null : collectionIndex.read(() -> collectionIndex.rows.getRow(id));
+    }
+
+    /** Version of an indexed key, or null if the key is not indexed. */
+    public Long getVersion(String collection, String id) {
+        CollectionIndex collectionIndex = index.get(collection);
+        return collectionIndex == null ? null : collectionIndex.read(() -> collectionIndex.rows.getVersion(id));
+    }
+
+    /** Gives an indexed key a new version and returns it, or null if the key is not indexed. */
+    public Long touch(String collection, String id) {
+        CollectionIndex collectionIndex = index.get(collection);
+        return collectionIndex == null ? null : collectionIndex.write(() -> collectionIndex.rows.touch(id));
+    }
+
+    /** Records the version a buffered update was written with; newer versions are kept. */
+    public void setVersion(String collection, String id, long version) {
+        CollectionIndex collectionIndex = index.get(collection);
+        if (collectionIndex != null) {
+            collectionIndex.write(() -> {
+                collectionIndex.rows.setVersion(id, version);
+                return null;
+            });
+        }
+    }
+
+    /** A version no key has had yet, for writes that are buffered before their key is indexed. */
+    public long newVersion() {
+        return RowIndex.newVersion();
     }
 
     public void put(String collection, String id, int row) {
-        index.computeIfAbsent(collection, key -> new HashMap<>()).put(id, row);
+        put(collection, id, row, newVersion());
+    }
+
+    public void put(String collection, String id, int row, long version) {
+        CollectionIndex collectionIndex = index.computeIfAbsent(collection, key -> new CollectionIndex(RowIndex.of(Map.of(), keyTableType)));
+        collectionIndex.write(() -> {
+            collectionIndex.rows.put(id, row, version);
+            return null;
+        });
+    }
+
+    public void putAll(String collection, Map<String, Integer> rows) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        CollectionIndex collectionIndex = index.computeIfAbsent(collection, key -> new CollectionIndex(RowIndex.of(Map.of(), keyTableType)));
+        collectionIndex.write(() -> {
+            rows.forEach(collectionIndex.rows::put);
+            return null;
+        });
     }
 
     public void remove(String collection, String id) {
-        Map<String, Integer> map = index.get(collection);
-        if (map != null) {
-            map.remove(id);
+        CollectionIndex collectionIndex = index.get(collection);
+        if (collectionIndex != null) {
+            collectionIndex.write(() -> {
+                collectionIndex.rows.remove(id);
+                return null;
+            });
         }
     }
 
+    public boolean hasCollection(String collection) {
+        return index.containsKey(collection);
+    }
+
     public Map<String, Integer> getCollection(String collection) {
-        return index.get(collection);
+        CollectionIndex collectionIndex = index.get(collection);
+        return collectionIndex == null ? null : collectionIndex.read(collectionIndex.rows::toMap);
+    }
+
+    public Set<String> getCollectionNames() {
+        return Set.copyOf(index.keySet());
     }
 
-    public Map<String, Map<String, Integer>> getAll() {
-        return index;
+    public int size(String collection) {
+        CollectionIndex collectionIndex = index.get(collection);
+        return collectionIndex == null ? 0 : collectionIndex.read(collectionIndex.rows::size);
+    }
+
+    public List<Map.Entry<String, Integer>> page(String collection, int offset, int limit) {
+        CollectionIndex collectionIndex = index.get(collection);
+        if (collectionIndex == null) {
+            return null;
+        }
+        return collectionIndex.read(() -> collectionIndex.rows.page(offset, limit));
+    }
+
+    /**
+     * Reads a page that starts after {@code after}, or at {@code offset} when there is no
+     * cursor, together with the cursor of the following page.
+     */
+    public IndexPage seek(String collection, PageCursor after, int offset, int limit) {
+        CollectionIndex collectionIndex = index.get(collection);
+        if (collectionIndex == null) {
+            return null;
+        }
+        return collectionIndex.read(() -> {
+            RowIndex rows = collectionIndex.rows;
+            int from = after == null ? offset : rows.rankAfter(after);
+            List<Map.Entry<String, Integer>> entries = rows.page(from, limit);
+            int last = from + entries.size();
+            if (entries.isEmpty() || last >= rows.size()) {
+                return new IndexPage(entries, null);
+            }
+            Map.Entry<String, Integer> lastEntry = entries.get(entries.size() - 1);
+            PageCursor next = new PageCursor(rows.generation(), rows.slotAtRank(last), lastEntry.getValue(),
+                    lastEntry.getKey());
+            return new IndexPage(entries, next);
+        });
     }
 
     public void rebuild(Map<String, Map<String, Integer>> newIndex) {
-        this.index = newIndex;
+        ConcurrentHashMap<String, CollectionIndex> rebuilt = new ConcurrentHashMap<>();
+        newIndex.forEach((collection, rows) -> rebuilt.put(collection, new CollectionIndex(RowIndex.of(rows, keyTableType))));
+        this.index = rebuilt;
+    }
+
+    public void replaceCollection(String collection, Map<String, Integer> rows) {
+        replaceCollection(collection, rows, false);
+    }
+
+    /**
+     * Replaces the index of a collection. With {@code keepVersions}, keys that were indexed
+     * before keep their versions; use it when rows moved but values did not change.
+     */
+    public void replaceCollection(String collection, Map<String, Integer> rows, boolean keepVersions) {
+        RowIndex replacement = RowIndex.of(rows, keyTableType);
+        CollectionIndex previous = index.get(collection);
+        if (keepVersions && previous != null) {
+            previous.read(() -> {
+                replacement.copyVersions(previous.rows);
+                return null;
+            });
+        }
+        index.put(collection, new CollectionIndex(replacement));
     }
 
     public void renameCollection(String oldName, String newName) {
-        Map<String, Integer> map = index.remove(oldName);
-        if (map != null) {
-            index.put(newName, map);
+        CollectionIndex collectionIndex = index.remove(oldName);
+        if (collectionIndex != null) {
+            index.put(newName, collectionIndex);
         }
     }
 
@@ -49,14 +178,78 @@ public class IndexStore {
     }
 
     public void ensureCollection(String name) {
-        index.computeIfAbsent(name, key -> new HashMap<>());
+        index.computeIfAbsent(name, key -> new CollectionIndex(RowIndex.of(Map.of(), keyTableType)));
+    }
+
+    /**
+     * Applies the index side of a transaction under one write lock, so readers see all of it or
+     * none: indexes created keys, gives updated keys new versions and removes deleted keys,
+     * moving later rows up when {@code shiftRows}. Returns the new version of every written key.
+     */
+    public Map<String, Long> applyChanges(String collection, Map<String, Integer> created, Collection<String> updated,
+            Map<String, Integer> removed, boolean shiftRows) {
+        CollectionIndex collectionIndex = index.computeIfAbsent(collection, key -> new CollectionIndex(RowIndex.of(Map.of(), keyTableType)));
+        return collectionIndex.write(() -> {
+            Map<String, Long> versions = new LinkedHashMap<>();
+            RowIndex rows = collectionIndex.rows;
+            created.forEach((id, row) -> {
+                rows.put(id, row);
+                versions.put(id, rows.getVersion(id));
+            });
+            updated.forEach(id -> versions.put(id, rows.touch(id)));
+            removed.keySet().forEach(rows::remove);
+            if (shiftRows && !removed.isEmpty()) {
+                rows.deleteRows(removed.values().stream().mapToInt(Integer::intValue).toArray());
+                if (rows.isSparse()) {
+                    collectionIndex.rows = rows.compacted();
+                }
+            }
+            return versions;
+        });
     }
 
     public void adjustAfterDelete(String collection, int deletedRow) {
-        Map<String, Integer> map = index.get(collection);
-        if (map == null) {
+        adjustAfterDeletes(collection, List.of(deletedRow));
+    }
+
+    public void adjustAfterDeletes(String collection, Collection<Integer> deletedRows) {
+        CollectionIndex collectionIndex = index.get(collection);
+        if (collectionIndex == null || deletedRows.isEmpty()) {
             return;
         }
-        map.replaceAll((id, row) -> row > deletedRow ? row - 1 : row);
+        int[] rows = deletedRows.stream().mapToInt(Integer::intValue).toArray();
+        collectionIndex.write(() -> {
+            collectionIndex.rows.deleteRows(rows);
+            if (collectionIndex.rows.isSparse()) {
+                collectionIndex.rows = collectionIndex.rows.compacted();
+            }
+            return null;
+        });
+    }
+
+    private static final class CollectionIndex {
+        private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        private RowIndex rows;
+
+        private CollectionIndex(RowIndex rows) {
+            this.rows = rows;
+        }
+
+        private <T> T read(Supplier<T> action) {
+            return withLock(lock.readLock(), action);
+        }
+
+        private <T> T write(Supplier<T> action) {
+            return withLock(lock.writeLock(), action);
+        }
+
+        private static <T> T withLock(Lock lock, Supplier<T> action) {
+            lock.lock();
+            try {
+                return action.get();
+            } finally {
+                lock.unlock();
+            }
+        }
     }
 }
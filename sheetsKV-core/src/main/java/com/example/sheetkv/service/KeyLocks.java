@@ -0,0 +1,76 @@
+package com.example.sheetkv.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Striped per-key locks that make a version check and the write that follows it atomic.
+ * Writers of different keys rarely share a stripe, and stripes are always taken in index
+ * order, so batch writers cannot deadlock each other. Key locks are taken before collection
+ * locks.
+ */
+@Component
+public class KeyLocks {
+    private static final int STRIPES = 1024;
+
+    private final ReentrantLock[] stripes = new ReentrantLock[STRIPES];
+
+    public KeyLocks() {
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    public <T> T locked(String collection, String id, Supplier<T> action) {
+        ReentrantLock lock = stripes[stripe(collection, id)];
+        lock.lock();
+        try {
+            return action.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Runs the action if the key's lock is free right now; returns whether it ran. */
+    public boolean tryLocked(String collection, String id, Runnable action) {
+        ReentrantLock lock = stripes[stripe(collection, id)];
+        if (!lock.tryLock()) {
+            return false;
+        }
+        try {
+            action.run();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public <T> T lockedAll(String collection, Collection<String> ids, Supplier<T> action) {
+        TreeSet<Integer> indexes = new TreeSet<>();
+        ids.forEach(id -> indexes.add(stripe(collection, id)));
+        List<ReentrantLock> acquired = new ArrayList<>(indexes.size());
+        try {
+            for (int index : indexes) {
+                ReentrantLock lock = stripes[index];
+                lock.lock();
+                acquired.add(lock);
+            }
+            return action.get();
+        } finally {
+            for (int i = acquired.size() - 1; i >= 0; i--) {
+                acquired.get(i).unlock();
+            }
+        }
+    }
+
+    private static int stripe(String collection, String id) {
+        int hash = 31 * collection.hashCode() + id.hashCode();
+        return (hash ^ (hash >>> 16)) & (STRIPES - 1);
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.sheetkv.service;
+
+import java.util.function.ObjIntConsumer;
+
+import com.example.sheetkv.config.IndexProperties.KeyTableType;
+
+/**
+ * Two-way mapping between keys and the row slots of a {@link RowIndex}.
+ */
+interface KeyTable {
+    int NO_SLOT = -1;
+
+    int slotOf(String id);
+
+    String idAt(int slot);
+
+    void put(String id, int slot);
+
+    int remove(String id);
+
+    int size();
+
+    void forEach(ObjIntConsumer<String> action);
+
+    static KeyTable create(KeyTableType type) {
+        return switch (type) {
+            case HASH -> new HashKeyTable();
+            case COMPACT -> new CompactKeyTable(false);
+            case OFF_HEAP -> new CompactKeyTable(true);
+        };
+    }
+}
@@ -1,177 +1,699 @@
 package com.example.sheetkv.service;
 
 import java.util.ArrayList;
-import java.util.Comparator;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
-import com.example.sheetkv.adapter.SheetsAdapter;
+import com.example.sheetkv.adapter.CellRange;
+import com.example.sheetkv.adapter.SheetBackend;
+import com.example.sheetkv.adapter.SheetRow;
+import com.example.sheetkv.config.DeleteProperties;
+import com.example.sheetkv.exception.ApiException;
 import com.example.sheetkv.exception.BackendException;
+import com.example.sheetkv.exception.BadRequestException;
+import com.example.sheetkv.exception.ConflictException;
 import com.example.sheetkv.exception.NotFoundException;
+import com.example.sheetkv.exception.PreconditionFailedException;
 import com.example.sheetkv.model.BatchDeleteResult;
 import com.example.sheetkv.model.BatchGetResult;
 import com.example.sheetkv.model.BatchUpsertResult;
 import com.example.sheetkv.model.KeyValueEntry;
 import com.example.sheetkv.model.PageResult;
+import com.example.sheetkv.model.TxnOperation;
+import com.example.sheetkv.model.TxnOperationType;
+import com.example.sheetkv.model.TxnResult;
+import com.example.sheetkv.model.VersionedValue;
+
+import io.micrometer.observation.annotation.Observed;
 
 @Service
 public class KvService {
     private static final Logger logger = LoggerFactory.getLogger(KvService.class);
+    private static final int READ_ATTEMPTS = 3;
+    /** Expected version meaning the key must not exist yet. */
+    public static final long ABSENT = 0;
+    /** Expected version meaning the key must exist, whatever its version. */
+    public static final long ANY = -1;
 
-    private final SheetsAdapter adapter;
+    private final SheetBackend adapter;
     private final IndexStore indexStore;
+    private final WriteBuffer writeBuffer;
+    private final ValueCache valueCache;
+    private final RowAllocator rowAllocator;
+    private final CollectionLocks collectionLocks;
+    private final DeleteProperties deleteProperties;
+    private final CellReader cellReader;
+    private final KeyLocks keyLocks;
 
-    public KvService(SheetsAdapter adapter, IndexStore indexStore) {
+    public KvService(SheetBackend adapter, IndexStore indexStore, WriteBuffer writeBuffer, ValueCache valueCache,
+            RowAllocator rowAllocator, CollectionLocks collectionLocks, DeleteProperties deleteProperties,
+            CellReader cellReader, KeyLocks keyLocks) {
         this.adapter = adapter;
         this.indexStore = indexStore;
+        this.writeBuffer = writeBuffer;
+        this.valueCache = valueCache;
+        this.rowAllocator = rowAllocator;
+        this.collectionLocks = collectionLocks;
+        this.deleteProperties = deleteProperties;
+        this.cellReader = cellReader;
+        this.keyLocks = keyLocks;
     }
 
+    @Observed(name = "sheetkv.kv", contextualName = "kv.get")
     public String get(String collection, String id) {
         ensureCollectionExists(collection);
+        String buffered = writeBuffer.lookup(collection, id);
+        if (buffered != null) {
+            return buffered;
+        }
         Integer row = indexStore.getRow(collection, id);
         if (row == null) {
             throw new NotFoundException("Key not found");
         }
-        String value = adapter.readCell(collection, row);
+        String value = readValue(collection, id, row);
         if (value == null) {
             throw new BackendException("Value missing for id: " + id);
         }
         return value;
     }
 
+    /**
+     * Reads a value with its version. The version is read first, so a concurrent write can only
+     * make the returned version older than the value, which fails a later conditional write
+     * instead of letting it overwrite unseen data.
+     */
+    @Observed(name = "sheetkv.kv", contextualName = "kv.get")
+    public VersionedValue getVersioned(String collection, String id) {
+        ensureCollectionExists(collection);
+        Long version = currentVersion(collection, id);
+        return new VersionedValue(get(collection, id), version);
+    }
+
+    /**
+     * Answers {@link #getVersioned} from memory when it can: returns a buffered or cached value,
+     * throws {@link NotFoundException} for keys the index does not know, and returns null when
+     * the value has to be read from the sheet.
+     */
+    @Observed(name = "sheetkv.kv", contextualName = "kv.peek")
+    public VersionedValue peek(String collection, String id) {
+        ensureCollectionExists(collection);
+        Long version = currentVersion(collection, id);
+        String buffered = writeBuffer.lookup(collection, id);
+        if (buffered != null) {
+            return new VersionedValue(buffered, version);
+        }
+        if (version == null) {
+            throw new NotFoundException("Key not found");
+        }
+        String cached = valueCache.get(collection, id);
+        return cached == null ? null : new VersionedValue(cached, version);
+    }
+
+    /** Current version of a key without reading its value, or null if the key does not exist. */
+    public Long getVersion(String collection, String id) {
+        ensureCollectionExists(collection);
+        return currentVersion(collection, id);
+    }
+
+    @Observed(name = "sheetkv.kv", contextualName = "kv.upsert")
     public void upsert(String collection, String id, String value) {
+        upsert(collection, id, value, null);
+    }
+
+    /**
+     * Writes a value if the key's version matches {@code expectedVersion}: a version, {@link #ABSENT}
+     * or {@link #ANY}; null writes unconditionally. Returns the new version; a key created
+     * through the write buffer is indexed with that version when it is flushed.
+     */
+    @Observed(name = "sheetkv.kv", contextualName = "kv.upsert")
+    public Long upsert(String collection, String id, String value, Long expectedVersion) {
         ensureCollectionExists(collection);
-        Integer row = indexStore.getRow(collection, id);
-        if (row == null) {
-            int appendedRow = adapter.appendRow(collection, id, value);
-            int effectiveRow = appendedRow > 0 ? appendedRow : findRowFromIndex(collection, id);
-            indexStore.put(collection, id, effectiveRow);
-            logger.info("kv.append collection={} id={} row={}", collection, id, effectiveRow);
-        } else {
-            adapter.updateCell(collection, row, value);
-            logger.info("kv.update collection={} id={} row={}", collection, id, row);
+        if (writeBuffer.isEnabled()) {
+            List<CompletableFuture<Void>> committed = new ArrayList<>(1);
+            Long version = keyLocks.locked(collection, id, () -> {
+                checkVersion(collection, id, expectedVersion);
+                long next = indexStore.newVersion();
+                CompletableFuture<Void> future = writeBuffer.submit(collection, id, value, next);
+                indexStore.setVersion(collection, id, next);
+                valueCache.put(collection, id, value);
+                future.whenComplete((ignored, ex) -> forgetDropped(collection, List.of(id), ex));
+                committed.add(future);
+                return next;
+            });
+            logger.info("kv.buffer collection={} id={}", collection, id);
+            writeBuffer.awaitCommit(committed.get(0));
+            return version;
         }
+        return keyLocks.locked(collection, id, () -> {
+            checkVersion(collection, id, expectedVersion);
+            return collectionLocks.shared(collection, () -> {
+                Integer row = indexStore.getRow(collection, id);
+                if (row == null) {
+                    int[] appendedRows = rowAllocator.allocate(collection, 1);
+                    try {
+                        adapter.writeRow(collection, appendedRows[0], id, value);
+                    } catch (ApiException ex) {
+                        rowAllocator.rollback(collection, appendedRows);
+                        throw ex;
+                    }
+                    valueCache.put(collection, id, value);
+                    indexStore.put(collection, id, appendedRows[0]);
+                    logger.info("kv.append collection={} id={} row={}", collection, id, appendedRows[0]);
+                    return indexStore.getVersion(collection, id);
+                }
+                adapter.updateCell(collection, row, value);
+                valueCache.put(collection, id, value);
+                logger.info("kv.update collection={} id={} row={}", collection, id, row);
+                return indexStore.touch(collection, id);
+            });
+        });
     }
 
+    @Observed(name = "sheetkv.kv", contextualName = "kv.delete")
     public void delete(String collection, String id) {
+        delete(collection, id, null);
+    }
+
+    /** Deletes a key if its version matches {@code expectedVersion}; null deletes unconditionally. */
+    @Observed(name = "sheetkv.kv", contextualName = "kv.delete")
+    public void delete(String collection, String id, Long expectedVersion) {
         ensureCollectionExists(collection);
-        Integer row = indexStore.getRow(collection, id);
-        if (row == null) {
-            throw new NotFoundException("Key not found");
-        }
-        adapter.deleteRow(collection, row);
-        indexStore.remove(collection, id);
-        indexStore.adjustAfterDelete(collection, row);
-        logger.info("kv.delete collection={} id={} row={}", collection, id, row);
+        keyLocks.locked(collection, id, () -> {
+            checkVersion(collection, id, expectedVersion);
+            boolean discarded = writeBuffer.discard(collection, id);
+            valueCache.invalidate(collection, id);
+            boolean deleted = deleteLocked(collection, true, () -> {
+                Integer row = indexStore.getRow(collection, id);
+                if (row == null) {
+                    return false;
+                }
+                removeRows(collection, Map.of(id, row));
+                logger.info("kv.delete collection={} id={} row={}", collection, id, row);
+                return true;
+            });
+            if (!deleted) {
+                if (!discarded) {
+                    throw new NotFoundException("Key not found");
+                }
+                logger.info("kv.delete collection={} id={} buffered=true", collection, id);
+            }
+            return null;
+        });
     }
 
+    /**
+     * Lists keys in row order. {@code cursor} is the opaque cursor of the previous page; plain
+     * numeric offsets from older clients are still accepted.
+     */
+    @Observed(name = "sheetkv.kv", contextualName = "kv.listKeys")
+    public PageResult<String> listKeys(String collection, int limit, String cursor) {
+        return keys(pageEntries(collection, cursor, limit));
+    }
+
+    @Observed(name = "sheetkv.kv", contextualName = "kv.listKeys")
     public PageResult<String> listKeys(String collection, int limit, int offset) {
-        List<Map.Entry<String, Integer>> ordered = orderedEntries(collection);
-        List<String> items = ordered.stream()
-                .skip(offset)
-                .limit(limit)
-                .map(Map.Entry::getKey)
-                .toList();
-        String nextCursor = computeNextCursor(offset, limit, ordered.size());
-        return new PageResult<>(items, nextCursor);
+        return keys(pageEntries(collection, null, offset, limit));
     }
 
+    @Observed(name = "sheetkv.kv", contextualName = "kv.listEntries")
+    public PageResult<KeyValueEntry> listEntries(String collection, int limit, String cursor) {
+        return entries(collection, pageEntries(collection, cursor, limit));
+    }
+
+    @Observed(name = "sheetkv.kv", contextualName = "kv.listEntries")
     public PageResult<KeyValueEntry> listEntries(String collection, int limit, int offset) {
-        List<Map.Entry<String, Integer>> ordered = orderedEntries(collection);
-        List<KeyValueEntry> items = ordered.stream()
-                .skip(offset)
-                .limit(limit)
-                .map(entry -> new KeyValueEntry(entry.getKey(), adapter.readCell(collection, entry.getValue())))
-                .toList();
-        String nextCursor = computeNextCursor(offset, limit, ordered.size());
-        return new PageResult<>(items, nextCursor);
+        return entries(collection, pageEntries(collection, null, offset, limit));
     }
 
+    @Observed(name = "sheetkv.kv", contextualName = "kv.batchGet")
     public BatchGetResult batchGet(String collection, List<String> ids) {
         ensureCollectionExists(collection);
+        List<Map.Entry<String, Integer>> indexed = new ArrayList<>();
+        for (String id : ids) {
+            Integer row = indexStore.getRow(collection, id);
+            indexed.add(Map.entry(id, row == null ? -1 : row));
+        }
+        Map<String, String> values = readValues(collection, indexed);
         List<KeyValueEntry> found = new ArrayList<>();
         List<String> missing = new ArrayList<>();
         for (String id : ids) {
-            Integer row = indexStore.getRow(collection, id);
-            if (row == null) {
-                missing.add(id);
-                continue;
-            }
-            String value = adapter.readCell(collection, row);
+            String value = values.get(id);
             if (value == null) {
                 missing.add(id);
-                continue;
+            } else {
+                found.add(new KeyValueEntry(id, value));
             }
-            found.add(new KeyValueEntry(id, value));
         }
         return new BatchGetResult(found, missing);
     }
 
+    @Observed(name = "sheetkv.kv", contextualName = "kv.batchUpsert")
     public BatchUpsertResult batchUpsert(String collection, List<KeyValueEntry> items) {
+        return batchUpsert(collection, items, Map.of());
+    }
+
+    /**
+     * Upserts items, the ones listed in {@code expectedVersions} only if their keys still have
+     * those versions. Versions are checked for every item before anything is written, so a
+     * mismatch fails the whole batch.
+     */
+    @Observed(name = "sheetkv.kv", contextualName = "kv.batchUpsert")
+    public BatchUpsertResult batchUpsert(String collection, List<KeyValueEntry> items,
+            Map<String, Long> expectedVersions) {
+        ensureCollectionExists(collection);
+        List<String> created = new ArrayList<>();
+        List<String> updated = new ArrayList<>();
+        Map<String, Long> versions = new LinkedHashMap<>();
+        Map<String, String> latest = new LinkedHashMap<>();
+        items.forEach(item -> latest.put(item.id(), item.value()));
+        if (writeBuffer.isEnabled()) {
+            CompletableFuture<Void> committed = keyLocks.lockedAll(collection, latest.keySet(), () -> {
+                checkVersions(collection, expectedVersions);
+                for (String id : latest.keySet()) {
+                    if (indexStore.getRow(collection, id) == null) {
+                        created.add(id);
+                    } else {
+                        updated.add(id);
+                    }
+                }
+                latest.keySet().forEach(id -> versions.put(id, indexStore.newVersion()));
+                CompletableFuture<Void> future = writeBuffer.submitAll(collection, items, versions);
+                versions.forEach((id, version) -> indexStore.setVersion(collection, id, version));
+                latest.forEach((id, value) -> valueCache.put(collection, id, value));
+                future.whenComplete((ignored, ex) -> forgetDropped(collection, latest.keySet(), ex));
+                return future;
+            });
+            writeBuffer.awaitCommit(committed);
+            return new BatchUpsertResult(created, updated, versions);
+        }
+
+        keyLocks.lockedAll(collection, latest.keySet(), () -> {
+            checkVersions(collection, expectedVersions);
+            return collectionLocks.shared(collection, () -> {
+                List<CellRange> data = new ArrayList<>();
+                List<List<String>> createdValues = new ArrayList<>();
+                latest.forEach((id, value) -> {
+                    Integer row = indexStore.getRow(collection, id);
+                    if (row == null) {
+                        createdValues.add(List.of(id, value));
+                        created.add(id);
+                    } else {
+                        data.add(CellRange.value(collection, row, value));
+                        updated.add(id);
+                    }
+                });
+
+                int[] rows = rowAllocator.allocate(collection, created.size());
+                data.addAll(RowRanges.rows(collection, rows, createdValues));
+                try {
+                    adapter.batchUpdateValues(data);
+                } catch (ApiException ex) {
+                    rowAllocator.rollback(collection, rows);
+                    throw ex;
+                }
+                latest.forEach((id, value) -> valueCache.put(collection, id, value));
+                Map<String, Integer> createdRows = new LinkedHashMap<>();
+                for (int i = 0; i < rows.length; i++) {
+                    createdRows.put(created.get(i), rows[i]);
+                }
+                indexStore.putAll(collection, createdRows);
+                for (String id : latest.keySet()) {
+                    versions.put(id, createdRows.containsKey(id) ? indexStore.getVersion(collection, id)
+                            : indexStore.touch(collection, id));
+                }
+                return null;
+            });
+        });
+        logger.info("kv.batchUpsert collection={} created={} updated={}", collection, created.size(), updated.size());
+        return new BatchUpsertResult(created, updated, versions);
+    }
+
+    @Observed(name = "sheetkv.kv", contextualName = "kv.batchDelete")
+    public BatchDeleteResult batchDelete(String collection, List<String> ids) {
         ensureCollectionExists(collection);
+        List<String> deleted = new ArrayList<>();
+        keyLocks.lockedAll(collection, ids, () -> {
+            for (String id : ids) {
+                valueCache.invalidate(collection, id);
+                if (writeBuffer.discard(collection, id) && indexStore.getRow(collection, id) == null) {
+                    deleted.add(id);
+                }
+            }
+            return deleteLocked(collection, true, () -> {
+                Map<String, Integer> rows = new LinkedHashMap<>();
+                for (String id : ids) {
+                    Integer row = indexStore.getRow(collection, id);
+                    if (row != null) {
+                        rows.put(id, row);
+                    }
+                }
+                if (!rows.isEmpty()) {
+                    removeRows(collection, rows);
+                    deleted.addAll(rows.keySet());
+                    logger.info("kv.batchDelete collection={} deleted={}", collection, rows.size());
+                }
+                return null;
+            });
+        });
+        return new BatchDeleteResult(deleted);
+    }
+
+    /**
+     * Applies puts and deletes all or nothing once every check holds. The version checks run
+     * against the index under the keys' locks, the sheet changes go out as one backend call and
+     * the index changes are applied in one step. Keys with buffered writes are flushed first so
+     * the buffer cannot overwrite the transaction later.
+     */
+    @Observed(name = "sheetkv.kv", contextualName = "kv.txn")
+    public TxnResult transact(String collection, List<TxnOperation> operations) {
+        ensureCollectionExists(collection);
+        Map<String, String> puts = new LinkedHashMap<>();
+        Set<String> deletes = new LinkedHashSet<>();
+        Set<String> ids = new LinkedHashSet<>();
+        Map<String, Long> expectedVersions = new LinkedHashMap<>();
+        for (TxnOperation operation : operations) {
+            String id = operation.id();
+            ids.add(id);
+            if (operation.op() == TxnOperationType.PUT && operation.value() == null) {
+                throw new BadRequestException("PUT of id '" + id + "' needs a value");
+            }
+            if (operation.op() == TxnOperationType.CHECK && operation.expectedVersion() == null) {
+                throw new BadRequestException("CHECK of id '" + id + "' needs an expectedVersion");
+            }
+            if (operation.op() != TxnOperationType.CHECK && (puts.containsKey(id) || deletes.contains(id))) {
+                throw new BadRequestException("Id '" + id + "' is written more than once");
+            }
+            if (operation.op() == TxnOperationType.PUT) {
+                puts.put(id, operation.value());
+            } else if (operation.op() == TxnOperationType.DELETE) {
+                deletes.add(id);
+            }
+            if (operation.expectedVersion() != null) {
+                Long previous = expectedVersions.putIfAbsent(id, operation.expectedVersion());
+                if (previous != null && !previous.equals(operation.expectedVersion())) {
+                    throw new BadRequestException("Conflicting expectedVersion for id '" + id + "'");
+                }
+            }
+        }
+        return keyLocks.lockedAll(collection, ids, () -> {
+            if (writeBuffer.isEnabled() && ids.stream().anyMatch(id -> writeBuffer.lookup(collection, id) != null)) {
+                writeBuffer.drain();
+                if (ids.stream().anyMatch(id -> writeBuffer.lookup(collection, id) != null)) {
+                    throw new BackendException("Buffered writes could not be flushed");
+                }
+            }
+            checkVersions(collection, expectedVersions);
+            return deleteLocked(collection, !deletes.isEmpty(),
+                    () -> commit(collection, puts, deletes, expectedVersions.size()));
+        });
+    }
+
+    /** Must be called with the keys' locks and the collection lock of {@link #deleteLocked} held. */
+    private TxnResult commit(String collection, Map<String, String> puts, Set<String> deletes, int conditions) {
+        List<SheetRow> writes = new ArrayList<>();
         List<String> created = new ArrayList<>();
         List<String> updated = new ArrayList<>();
-        for (KeyValueEntry item : items) {
-            Integer row = indexStore.getRow(collection, item.id());
+        puts.forEach((id, value) -> {
+            Integer row = indexStore.getRow(collection, id);
             if (row == null) {
-                int appendedRow = adapter.appendRow(collection, item.id(), item.value());
-                int effectiveRow = appendedRow > 0 ? appendedRow : findRowFromIndex(collection, item.id());
-                indexStore.put(collection, item.id(), effectiveRow);
-                created.add(item.id());
+                created.add(id);
             } else {
-                adapter.updateCell(collection, row, item.value());
-                updated.add(item.id());
+                writes.add(new SheetRow(row, id, value));
+                updated.add(id);
             }
+        });
+        Map<String, Integer> removed = new LinkedHashMap<>();
+        for (String id : deletes) {
+            Integer row = indexStore.getRow(collection, id);
+            if (row != null) {
+                removed.put(id, row);
+            }
+        }
+        int[] rows = rowAllocator.allocate(collection, created.size());
+        Map<String, Integer> createdRows = new LinkedHashMap<>();
+        for (int i = 0; i < rows.length; i++) {
+            createdRows.put(created.get(i), rows[i]);
+            writes.add(new SheetRow(rows[i], created.get(i), puts.get(created.get(i))));
         }
-        return new BatchUpsertResult(created, updated);
+        boolean tombstone = deleteProperties.isTombstone();
+        try {
+            adapter.applyRowChanges(collection, writes, tombstone ? removed.values() : List.of(),
+                    tombstone ? List.of() : removed.values());
+        } catch (ApiException ex) {
+            rowAllocator.rollback(collection, rows);
+            throw ex;
+        }
+        puts.forEach((id, value) -> valueCache.put(collection, id, value));
+        deletes.forEach(id -> valueCache.invalidate(collection, id));
+        Map<String, Long> versions = indexStore.applyChanges(collection, createdRows, updated, removed, !tombstone);
+        if (tombstone) {
+            rowAllocator.free(collection, removed.values());
+        } else {
+            rowAllocator.release(collection, removed.values());
+        }
+        logger.info("kv.txn collection={} created={} updated={} deleted={} conditions={}", collection, created.size(),
+                updated.size(), removed.size(), conditions);
+        return new TxnResult(created, updated, List.copyOf(removed.keySet()), versions);
     }
 
-    public BatchDeleteResult batchDelete(String collection, List<String> ids) {
-        ensureCollectionExists(collection);
-        List<Map.Entry<String, Integer>> rows = ids.stream()
-                .map(id -> Map.entry(id, indexStore.getRow(collection, id)))
-                .filter(entry -> entry.getValue() != null)
-                .sorted(Map.Entry.<String, Integer>comparingByValue(Comparator.reverseOrder()))
-                .collect(Collectors.toList());
+    /**
+     * Physical deletes move every later row up, so they take the collection's exclusive lock:
+     * writers and write-behind flushes resolve a key's row under the shared lock and must not
+     * write to it after it has moved. Tombstone deletes move nothing and share the lock.
+     */
+    private <T> T deleteLocked(String collection, boolean deletes, Supplier<T> action) {
+        return deletes && !deleteProperties.isTombstone() ? collectionLocks.exclusive(collection, action)
+                : collectionLocks.shared(collection, action);
+    }
 
-        List<String> deleted = new ArrayList<>();
-        for (Map.Entry<String, Integer> entry : rows) {
-            adapter.deleteRow(collection, entry.getValue());
-            indexStore.remove(collection, entry.getKey());
-            indexStore.adjustAfterDelete(collection, entry.getValue());
-            deleted.add(entry.getKey());
+    /** Must be called with the collection lock of {@link #deleteLocked} held. */
+    private void removeRows(String collection, Map<String, Integer> rows) {
+        if (deleteProperties.isTombstone()) {
+            adapter.clearRows(collection, rows.values());
+            rows.keySet().forEach(id -> indexStore.remove(collection, id));
+            rowAllocator.free(collection, rows.values());
+            return;
         }
-        return new BatchDeleteResult(deleted);
+        adapter.deleteRows(collection, rows.values());
+        rows.keySet().forEach(id -> indexStore.remove(collection, id));
+        indexStore.adjustAfterDeletes(collection, rows.values());
+        rowAllocator.release(collection, rows.values());
     }
 
-    private List<Map.Entry<String, Integer>> orderedEntries(String collection) {
-        Map<String, Integer> map = indexStore.getCollection(collection);
-        if (map == null) {
-            throw new NotFoundException("Collection not found");
+    private String readValue(String collection, String id, int row) {
+        String buffered = writeBuffer.lookup(collection, id);
+        if (buffered != null) {
+            return buffered;
+        }
+        String cached = valueCache.get(collection, id);
+        if (cached != null) {
+            return cached;
+        }
+        Long version = currentVersion(collection, id);
+        for (int attempt = 1;; attempt++) {
+            SheetRow read = cellReader.read(collection, id, row, version);
+            if (read != null && id.equals(read.id())) {
+                cacheRead(collection, id, version, read.value());
+                return read.value();
+            }
+            // A physical delete can move the key between resolving its row and reading it. The
+            // shared lock waits for one still in progress, whose index update lags its sheet change.
+            Integer moved = collectionLocks.shared(collection, () -> indexStore.getRow(collection, id));
+            if (moved == null) {
+                throw new NotFoundException("Key not found");
+            }
+            if (moved == row || attempt == READ_ATTEMPTS) {
+                logger.warn("kv.drift collection={} id={} row={} found={}", collection, id, row,
+                        read == null ? null : read.id());
+                throw new ConflictException("Index out of sync with sheet; run /v1/flush");
+            }
+            row = moved;
+            version = currentVersion(collection, id);
+        }
+    }
+
+    /**
+     * Caches a value read from the sheet unless the key was written since {@code version} was
+     * taken before the read. The check runs under the key's lock, which writers hold until their
+     * value is cached and their version is set; if a writer holds it, the value is not cached.
+     */
+    private void cacheRead(String collection, String id, Long version, String value) {
+        if (version == null) {
+            return;
+        }
+        keyLocks.tryLocked(collection, id, () -> {
+            if (version.equals(currentVersion(collection, id))) {
+                valueCache.put(collection, id, value);
+            }
+        });
+    }
+
+    private Map<String, Long> versionsOf(String collection, Collection<String> ids) {
+        Map<String, Long> versions = new HashMap<>();
+        ids.forEach(id -> versions.put(id, currentVersion(collection, id)));
+        return versions;
+    }
+
+    private Map<String, String> readValues(String collection, List<Map.Entry<String, Integer>> entries) {
+        Map<String, String> values = new HashMap<>();
+        Map<Integer, String> idsByRow = new HashMap<>();
+        for (Map.Entry<String, Integer> entry : entries) {
+            String id = entry.getKey();
+            String value = writeBuffer.lookup(collection, id);
+            if (value == null) {
+                value = valueCache.get(collection, id);
+            }
+            if (value != null) {
+                values.put(id, value);
+            } else if (entry.getValue() > 0) {
+                idsByRow.put(entry.getValue(), id);
+            }
+        }
+        if (!idsByRow.isEmpty()) {
+            Map<String, Long> versions = versionsOf(collection, idsByRow.values());
+            adapter.readCells(collection, idsByRow.keySet()).forEach((row, value) -> {
+                String id = idsByRow.get(row);
+                values.put(id, value);
+                cacheRead(collection, id, versions.get(id), value);
+            });
+        }
+        return values;
+    }
+
+    private Map<String, String> readPage(String collection, List<Map.Entry<String, Integer>> page) {
+        Map<String, String> values = new HashMap<>();
+        Map<Integer, String> idsByRow = new HashMap<>();
+        for (Map.Entry<String, Integer> entry : page) {
+            String value = writeBuffer.lookup(collection, entry.getKey());
+            if (value == null) {
+                value = valueCache.get(collection, entry.getKey());
+            }
+            if (value != null) {
+                values.put(entry.getKey(), value);
+            } else {
+                idsByRow.put(entry.getValue(), entry.getKey());
+            }
         }
-        return map.entrySet().stream()
-                .sorted(Map.Entry.comparingByValue())
+        if (idsByRow.isEmpty()) {
+            return values;
+        }
+        Map<String, Long> versions = versionsOf(collection, idsByRow.values());
+        Map<Integer, SheetRow> rows = adapter.readRows(collection, idsByRow.keySet());
+        idsByRow.forEach((row, id) -> {
+            SheetRow sheetRow = rows.get(row);
+            if (sheetRow == null || !id.equals(sheetRow.id())) {
+                logger.warn("kv.drift collection={} id={} row={} found={}", collection, id, row,
+                        sheetRow == null ? null : sheetRow.id());
+                throw new ConflictException("Index out of sync with sheet; run /v1/flush");
+            }
+            values.put(id, sheetRow.value());
+            cacheRead(collection, id, versions.get(id), sheetRow.value());
+        });
+        return values;
+    }
+
+    private PageResult<String> keys(IndexPage page) {
+        List<String> items = page.entries().stream()
+                .map(Map.Entry::getKey)
                 .toList();
+        return new PageResult<>(items, encodeCursor(page.next()));
     }
 
-    private void ensureCollectionExists(String collection) {
-        if (indexStore.getCollection(collection) == null) {
+    private PageResult<KeyValueEntry> entries(String collection, IndexPage page) {
+        Map<String, String> values = readPage(collection, page.entries());
+        List<KeyValueEntry> items = page.entries().stream()
+                .map(entry -> new KeyValueEntry(entry.getKey(), values.get(entry.getKey())))
+                .toList();
+        return new PageResult<>(items, encodeCursor(page.next()));
+    }
+
+    private IndexPage pageEntries(String collection, String cursor, int limit) {
+        if (cursor == null || cursor.isBlank()) {
+            return pageEntries(collection, null, 0, limit);
+        }
+        if (cursor.chars().allMatch(Character::isDigit)) {
+            try {
+                return pageEntries(collection, null, Integer.parseInt(cursor), limit);
+            } catch (NumberFormatException ex) {
+                throw new BadRequestException("Invalid cursor");
+            }
+        }
+        return pageEntries(collection, PageCursor.decode(cursor), 0, limit);
+    }
+
+    private IndexPage pageEntries(String collection, PageCursor after, int offset, int limit) {
+        IndexPage page = indexStore.seek(collection, after, offset, limit);
+        if (page == null) {
             throw new NotFoundException("Collection not found");
         }
+        return page;
     }
 
-    private String computeNextCursor(int offset, int limit, int total) {
-        int next = offset + limit;
-        return next < total ? String.valueOf(next) : null;
+    /** Must be called with the key's lock held. */
+    private void checkVersion(String collection, String id, Long expectedVersion) {
+        if (expectedVersion == null) {
+            return;
+        }
+        Long current = currentVersion(collection, id);
+        boolean exists = current != null || writeBuffer.lookup(collection, id) != null;
+        boolean matches = expectedVersion == ANY ? exists
+                : expectedVersion == ABSENT ? !exists
+                : current != null && current == expectedVersion.longValue();
+        if (!matches) {
+            throw new PreconditionFailedException("Version mismatch for id: " + id);
+        }
     }
 
-    private int findRowFromIndex(String collection, String id) {
-        Integer row = indexStore.getRow(collection, id);
-        return row == null ? -1 : row;
+    /**
+     * The buffer is asked first: a flush indexes a new key before it leaves the buffer, so the
+     * version cannot be missed in between.
+     */
+    private Long currentVersion(String collection, String id) {
+        Long buffered = writeBuffer.lookupVersion(collection, id);
+        return buffered != null ? buffered : indexStore.getVersion(collection, id);
+    }
+
+    private void checkVersions(String collection, Map<String, Long> expectedVersions) {
+        List<String> mismatched = new ArrayList<>();
+        expectedVersions.forEach((id, expected) -> {
+            try {
+                checkVersion(collection, id, expected);
+            } catch (PreconditionFailedException ex) {
+                mismatched.add(id);
+            }
+        });
+        if (!mismatched.isEmpty()) {
+            throw new PreconditionFailedException("Version mismatch for ids: " + String.join(", ",
+                    mismatched.size() > 20 ? mismatched.subList(0, 20) : mismatched)
+                    + (mismatched.size() > 20 ? " and " + (mismatched.size() - 20) + " more" : ""));
+        }
+    }
+
+    /** A buffered write the sheet never took must not keep being served from the cache. */
+    private void forgetDropped(String collection, Collection<String> ids, Throwable failure) {
+        if (failure != null) {
+            ids.forEach(id -> valueCache.invalidate(collection, id));
+        }
+    }
+
+    private void ensureCollectionExists(String collection) {
+        if (!indexStore.hasCollection(collection)) {
+            throw new NotFoundException("Collection not found");
+        }
+    }
+
+    private static String encodeCursor(PageCursor cursor) {
+        return cursor == null ? null : cursor.encode();
     }
 }
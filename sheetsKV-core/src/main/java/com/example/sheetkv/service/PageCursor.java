@@ -0,0 +1,48 @@
+package com.example.sheetkv.service;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Base64;
+
+import com.example.sheetkv.exception.BadRequestException;
+
+/**
+ * Position after the last key of a page: the index generation and slot it was read from, plus
+ * the key and its row so the scan can resume by key or row once the index has been rebuilt.
+ * Encoded as URL-safe base64 so clients treat it as opaque.
+ */
+public record PageCursor(long generation, int slot, int row, String id) {
+    private static final byte VERSION = 1;
+
+    public String encode() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(32 + id.length());
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(VERSION);
+            out.writeLong(generation);
+            out.writeInt(slot);
+            out.writeInt(row);
+            out.writeUTF(id);
+        } catch (IOException ex) {
+            throw new IllegalStateException(ex);
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes.toByteArray());
+    }
+
+    public static PageCursor decode(String cursor) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(Base64.getUrlDecoder().decode(cursor)))) {
+            if (in.readByte() != VERSION) {
+                throw new BadRequestException("Invalid cursor");
+            }
+            PageCursor decoded = new PageCursor(in.readLong(), in.readInt(), in.readInt(), in.readUTF());
+            if (in.available() > 0 || decoded.slot() < 0 || decoded.row() < 0) {
+                throw new BadRequestException("Invalid cursor");
+            }
+            return decoded;
+        } catch (IOException | IllegalArgumentException ex) {
+            throw new BadRequestException("Invalid cursor");
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package com.example.sheetkv.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import com.example.sheetkv.adapter.SheetBackend;
+import com.example.sheetkv.config.RowTrackingProperties;
+
+@Component
+public class RowAllocator {
+    private static final Logger logger = LoggerFactory.getLogger(RowAllocator.class);
+
+    private final SheetBackend adapter;
+    private final RowTrackingProperties properties;
+    private final Map<String, RowState> states = new ConcurrentHashMap<>();
+
+    public RowAllocator(SheetBackend adapter, RowTrackingProperties properties) {
+        this.adapter = adapter;
+        this.properties = properties;
+    }
+
+    public int[] allocate(String collection, int count) {
+        RowState state = states.computeIfAbsent(collection, name -> new RowState(adapter.nextRow(name)));
+        int[] rows = new int[count];
+        int tailStart;
+        synchronized (state) {
+            int i = 0;
+            while (i < count && !state.free.isEmpty()) {
+                rows[i++] = state.free.pollFirst();
+            }
+            tailStart = state.next;
+            for (; i < count; i++) {
+                rows[i] = state.next++;
+            }
+        }
+        int tailEnd = count == 0 ? tailStart - 1 : rows[count - 1];
+        if (properties.isVerifyAppends() && tailEnd >= tailStart
+                && !adapter.isColumnAEmpty(collection, tailStart, tailEnd)) {
+            int actual = adapter.nextRow(collection);
+            logger.warn("rows.drift collection={} tracked={} actual={}", collection, tailStart, actual);
+            rollback(collection, rows);
+            synchronized (state) {
+                state.next = Math.max(state.next, actual);
+            }
+            return allocate(collection, count);
+        }
+        return rows;
+    }
+
+    public void rollback(String collection, int[] rows) {
+        RowState state = states.get(collection);
+        if (state == null) {
+            return;
+        }
+        int[] sorted = rows.clone();
+        Arrays.sort(sorted);
+        synchronized (state) {
+            for (int i = sorted.length - 1; i >= 0; i--) {
+                if (sorted[i] == state.next - 1) {
+                    state.next--;
+                } else {
+                    state.free.add(sorted[i]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Accounts for physically deleted rows: every later row moves up by one per deleted row
+     * above it, free rows included, so a free row keeps pointing at the blank row it was.
+     */
+    public void release(String collection, Collection<Integer> deletedRows) {
+        RowState state = states.get(collection);
+        if (state == null || deletedRows.isEmpty()) {
+            return;
+        }
+        int[] deleted = deletedRows.stream().mapToInt(Integer::intValue).sorted().distinct().toArray();
+        synchronized (state) {
+            List<Integer> shifted = new ArrayList<>(state.free.size());
+            for (int row : state.free) {
+                int at = Arrays.binarySearch(deleted, row);
+                if (at < 0) {
+                    shifted.add(row - (-at - 1));
+                }
+            }
+            state.free.clear();
+            state.free.addAll(shifted);
+            state.next -= deleted.length;
+        }
+    }
+
+    public void free(String collection, Collection<Integer> rows) {
+        RowState state = states.get(collection);
+        if (state != null) {
+            synchronized (state) {
+                state.free.addAll(rows);
+            }
+        }
+    }
+
+    public int freeCount(String collection) {
+        RowState state = states.get(collection);
+        if (state == null) {
+            return 0;
+        }
+        synchronized (state) {
+            return state.free.size();
+        }
+    }
+
+    public int trackedNextRow(String collection) {
+        RowState state = states.get(collection);
+        if (state == null) {
+            return 0;
+        }
+        synchronized (state) {
+            return state.next;
+        }
+    }
+
+    public List<Integer> freeRows(String collection) {
+        RowState state = states.get(collection);
+        if (state == null) {
+            return List.of();
+        }
+        synchronized (state) {
+            return List.copyOf(state.free);
+        }
+    }
+
+    public void seed(String collection, int nextRow) {
+        states.put(collection, new RowState(nextRow));
+    }
+
+    public void restore(String collection, int nextRow, Collection<Integer> freeRows) {
+        RowState state = new RowState(nextRow);
+        state.free.addAll(freeRows);
+        states.put(collection, state);
+    }
+
+    public void reset(Map<String, Integer> seeds, Map<String, List<Integer>> freeRows) {
+        states.keySet().retainAll(seeds.keySet());
+        seeds.forEach((collection, nextRow) -> {
+            RowState state = new RowState(nextRow);
+            state.free.addAll(freeRows.getOrDefault(collection, List.of()));
+            states.put(collection, state);
+        });
+    }
+
+    public void renameCollection(String oldName, String newName) {
+        RowState state = states.remove(oldName);
+        if (state != null) {
+            states.put(newName, state);
+        }
+    }
+
+    public void removeCollection(String collection) {
+        states.remove(collection);
+    }
+
+    private static final class RowState {
+        private final TreeSet<Integer> free = new TreeSet<>();
+        private int next;
+
+        private RowState(int next) {
+            this.next = next;
+        }
+    }
+}
@@ -0,0 +1,243 @@
+package com.example.sheetkv.service;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.example.sheetkv.config.IndexProperties.KeyTableType;
+
+/**
+ * Key index for one collection that keeps keys in physical row order.
+ * <p>
+ * Every sheet row the index knows about owns a slot. Slots never move: a physically
+ * deleted row only clears its slot's "exists" bit, so the current row number of a slot
+ * is the number of existing slots up to it. Both bit sets are Fenwick trees, which makes
+ * row lookups, deletes and rank-based page seeks O(log n) without touching other keys.
+ * Slots are only stable within one instance, so each instance gets a new generation that
+ * page cursors carry.
+ * <p>
+ * Each slot also holds the version of its key. Versions come from one clock-seeded counter, so
+ * a version is never handed out twice, even across restarts, and keys loaded by a rebuild get a
+ * version no client has seen before.
+ */
+final class RowIndex {
+    private static final AtomicLong GENERATIONS = new AtomicLong(ThreadLocalRandom.current().nextLong() >>> 16);
+    // Milliseconds times 1024 stays below 2^53, so versions survive JSON clients that use doubles.
+    private static final AtomicLong VERSIONS = new AtomicLong(System.currentTimeMillis() << 10);
+
+    private final long generation = GENERATIONS.incrementAndGet();
+    private final KeyTableType keyTableType;
+    private final KeyTable keys;
+    private final FenwickTree existing;
+    private final FenwickTree present;
+    private final long loadedVersion;
+    private long[] versions;
+
+    private RowIndex(int capacity, KeyTableType keyTableType) {
+        this.keyTableType = keyTableType;
+        this.keys = KeyTable.create(keyTableType);
+        this.existing = new FenwickTree(capacity);
+        this.present = new FenwickTree(capacity);
+        this.loadedVersion = newVersion();
+        this.versions = new long[capacity + 1];
+    }
+
+    static RowIndex of(Map<String, Integer> rows, KeyTableType keyTableType) {
+        int maxRow = rows.values().stream().mapToInt(Integer::intValue).max().orElse(0);
+        RowIndex index = new RowIndex(Math.max(16, maxRow), keyTableType);
+        String[] ids = new String[maxRow + 1];
+        rows.forEach((id, row) -> ids[row] = id);
+        for (int row = 1; row <= maxRow; row++) {
+            index.appendSlot(ids[row]);
+        }
+        return index;
+    }
+
+    int size() {
+        return present.total();
+    }
+
+    long generation() {
+        return generation;
+    }
+
+    Integer getRow(String id) {
+        int slot = keys.slotOf(id);
+        return slot == KeyTable.NO_SLOT ? null : existing.prefix(slot);
+    }
+
+    /** Current version of the key, or null if it is not indexed. */
+    Long getVersion(String id) {
+        int slot = keys.slotOf(id);
+        return slot == KeyTable.NO_SLOT ? null : versionAt(slot);
+    }
+
+    /** Gives an indexed key a new version and returns it, or null if the key is not indexed. */
+    Long touch(String id) {
+        int slot = keys.slotOf(id);
+        if (slot == KeyTable.NO_SLOT) {
+            return null;
+        }
+        versions[slot] = newVersion();
+        return versions[slot];
+    }
+
+    /**
+     * Raises an indexed key's version to {@code version}, handed out earlier by
+     * {@link #newVersion()}; a key that already has a newer version keeps it.
+     */
+    void setVersion(String id, long version) {
+        int slot = keys.slotOf(id);
+        if (slot != KeyTable.NO_SLOT && versionAt(slot) < version) {
+            versions[slot] = version;
+        }
+    }
+
+    static long newVersion() {
+        return VERSIONS.incrementAndGet();
+    }
+
+    void put(String id, int row) {
+        put(id, row, newVersion());
+    }
+
+    /** Indexes the key at the row with a version handed out earlier by {@link #newVersion()}. */
+    void put(String id, int row, long version) {
+        remove(id);
+        int slot = slotForRow(row);
+        String previous = keys.idAt(slot);
+        if (previous != null) {
+            keys.remove(previous);
+        }
+        keys.put(id, slot);
+        present.set(slot, 1);
+        versions[slot] = version;
+    }
+
+    void remove(String id) {
+        int slot = keys.remove(id);
+        if (slot != KeyTable.NO_SLOT) {
+            present.set(slot, 0);
+        }
+    }
+
+    /**
+     * Removes physical rows. Rows are numbered as they were before any of them was
+     * deleted; keys still on those rows are dropped.
+     */
+    void deleteRows(int[] rows) {
+        int[] sorted = rows.clone();
+        Arrays.sort(sorted);
+        for (int i = sorted.length - 1; i >= 0; i--) {
+            int row = sorted[i];
+            if (i + 1 < sorted.length && sorted[i + 1] == row) {
+                continue;
+            }
+            int slot = existing.findKth(row);
+            if (slot < 0) {
+                continue;
+            }
+            String id = keys.idAt(slot);
+            if (id != null) {
+                remove(id);
+            }
+            existing.set(slot, 0);
+        }
+    }
+
+    /** Seeks to the first key once, then walks the slots forward, counting rows as it goes. */
+    List<Map.Entry<String, Integer>> page(int offset, int limit) {
+        List<Map.Entry<String, Integer>> page = new ArrayList<>(Math.min(limit, Math.max(0, size() - offset)));
+        int first = limit <= 0 ? -1 : present.findKth(offset + 1);
+        if (first < 0) {
+            return page;
+        }
+        int row = existing.prefix(first - 1);
+        for (int slot = first; slot <= existing.size() && page.size() < limit; slot++) {
+            row += existing.get(slot);
+            if (present.get(slot) == 1) {
+                page.add(new AbstractMap.SimpleImmutableEntry<>(keys.idAt(slot), row));
+            }
+        }
+        return page;
+    }
+
+    /**
+     * Number of keys before the point where a scan that stopped at {@code cursor} resumes. A
+     * cursor from this generation seeks straight to its slot, which deleted and inserted keys
+     * do not move. Otherwise the scan resumes after the cursor's key if it is still indexed,
+     * or else at its row: rows only move up, so a key found there was not listed yet.
+     */
+    int rankAfter(PageCursor cursor) {
+        if (cursor.generation() == generation && cursor.slot() <= existing.size()) {
+            return present.prefix(cursor.slot());
+        }
+        int slot = keys.slotOf(cursor.id());
+        if (slot != KeyTable.NO_SLOT) {
+            return present.prefix(slot);
+        }
+        if (cursor.row() > existing.total()) {
+            return size();
+        }
+        return cursor.row() <= 1 ? 0 : present.prefix(existing.findKth(cursor.row() - 1));
+    }
+
+    /** Slot of the key at {@code rank} (1-based in row order). */
+    int slotAtRank(int rank) {
+        return present.findKth(rank);
+    }
+
+    Map<String, Integer> toMap() {
+        Map<String, Integer> rows = new HashMap<>(keys.size() * 2);
+        keys.forEach((id, slot) -> rows.put(id, existing.prefix(slot)));
+        return rows;
+    }
+
+    RowIndex compacted() {
+        RowIndex compacted = of(toMap(), keyTableType);
+        compacted.copyVersions(this);
+        return compacted;
+    }
+
+    /** Carries the versions of keys that {@code previous} also indexes over to this index. */
+    void copyVersions(RowIndex previous) {
+        keys.forEach((id, slot) -> {
+            int previousSlot = previous.keys.slotOf(id);
+            if (previousSlot != KeyTable.NO_SLOT) {
+                versions[slot] = previous.versionAt(previousSlot);
+            }
+        });
+    }
+
+    boolean isSparse() {
+        return existing.size() > 1024 && existing.total() < existing.size() / 2;
+    }
+
+    private int slotForRow(int row) {
+        while (existing.total() < row) {
+            appendSlot(null);
+        }
+        return existing.findKth(row);
+    }
+
+    private void appendSlot(String id) {
+        existing.append(1);
+        present.append(id == null ? 0 : 1);
+        if (existing.size() >= versions.length) {
+            versions = Arrays.copyOf(versions, Math.max(16, versions.length * 2));
+        }
+        if (id != null) {
+            keys.put(id, existing.size());
+        }
+    }
+
+    private long versionAt(int slot) {
+        long version = versions[slot];
+        return version == 0 ? loadedVersion : version;
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.sheetkv.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.example.sheetkv.adapter.CellRange;
+
+final class RowRanges {
+    private RowRanges() {
+    }
+
+    static List<CellRange> rows(String collection, int[] rows, List<List<String>> values) {
+        List<CellRange> ranges = new ArrayList<>();
+        int start = 0;
+        while (start < rows.length) {
+            int end = start;
+            while (end + 1 < rows.length && rows[end + 1] == rows[end] + 1) {
+                end++;
+            }
+            ranges.add(CellRange.rows(collection, rows[start], values.subList(start, end + 1)));
+            start = end + 1;
+        }
+        return ranges;
+    }
+}
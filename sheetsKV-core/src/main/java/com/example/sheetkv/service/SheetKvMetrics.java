@@ -0,0 +1,118 @@
+package com.example.sheetkv.service;
+
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+
+import com.example.sheetkv.adapter.QuotaScheduler;
+import com.example.sheetkv.model.QuotaBucketStats;
+import com.example.sheetkv.model.QuotaStats;
+import com.example.sheetkv.model.WriteBufferStats;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.MultiGauge;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Quota, index and write-behind gauges. Quota meters read the scheduler's counters on scrape;
+ * per-collection index sizes are refreshed every {@code sheet.metrics.gaugeRefresh} because
+ * collections come and go, and are summed into one gauge when collection tags are off.
+ */
+public class SheetKvMetrics implements MeterBinder {
+    private final QuotaScheduler quotaScheduler;
+    private final IndexStore indexStore;
+    private final WriteBuffer writeBuffer;
+    private final Duration refresh;
+    private final boolean collectionTags;
+    private ScheduledExecutorService scheduler;
+
+    public SheetKvMetrics(QuotaScheduler quotaScheduler, IndexStore indexStore, WriteBuffer writeBuffer,
+            Duration refresh, boolean collectionTags) {
+        this.quotaScheduler = quotaScheduler;
+        this.indexStore = indexStore;
+        this.writeBuffer = writeBuffer;
+        this.refresh = refresh;
+        this.collectionTags = collectionTags;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        bindQuota(registry, "read", QuotaStats::reads, QuotaStats::readCalls);
+        bindQuota(registry, "write", QuotaStats::writes, QuotaStats::writeCalls);
+        FunctionCounter.builder("sheetkv.quota.throttled", quotaScheduler, q -> q.getStats().throttled())
+                .description("Sheets calls rejected with 429")
+                .register(registry);
+        FunctionCounter.builder("sheetkv.quota.server.errors", quotaScheduler, q -> q.getStats().serverErrors())
+                .description("Sheets calls failed with 5xx")
+                .register(registry);
+        FunctionCounter.builder("sheetkv.quota.retries", quotaScheduler, q -> q.getStats().retries())
+                .register(registry);
+        FunctionCounter.builder("sheetkv.quota.exhausted", quotaScheduler, q -> q.getStats().exhausted())
+                .description("Sheets calls that failed after all retries")
+                .register(registry);
+
+        Gauge.builder("sheetkv.writes.pending", writeBuffer,
+                buffer -> buffer.getStats().values().stream().mapToLong(WriteBufferStats::pending).sum())
+                .description("Buffered writes not yet flushed to the spreadsheet")
+                .register(registry);
+
+        if (!collectionTags || refresh == null || refresh.isZero()) {
+            Gauge.builder("sheetkv.index.keys", indexStore,
+                    store -> store.getCollectionNames().stream().mapToLong(store::size).sum())
+                    .description("Indexed keys across all collections")
+                    .register(registry);
+        } else {
+            MultiGauge indexKeys = MultiGauge.builder("sheetkv.index.keys")
+                    .description("Indexed keys per collection")
+                    .register(registry);
+            Runnable update = () -> indexKeys.register(indexStore.getCollectionNames().stream()
+                    .<MultiGauge.Row<?>>map(name -> MultiGauge.Row.of(Tags.of("collection", name),
+                            indexStore.size(name)))
+                    .toList(), true);
+            update.run();
+            scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "sheetkv-metrics");
+                thread.setDaemon(true);
+                return thread;
+            });
+            long intervalMs = refresh.toMillis();
+            scheduler.scheduleWithFixedDelay(update, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    private void bindQuota(MeterRegistry registry, String bucket,
+            Function<QuotaStats, QuotaBucketStats> stats, ToDoubleFunction<QuotaStats> calls) {
+        FunctionCounter.builder("sheetkv.quota.calls", quotaScheduler, q -> calls.applyAsDouble(q.getStats()))
+                .description("Sheets calls made, including retries")
+                .tag("bucket", bucket)
+                .register(registry);
+        Gauge.builder("sheetkv.quota.tokens", quotaScheduler, q -> stats.apply(q.getStats()).availableTokens())
+                .tag("bucket", bucket)
+                .register(registry);
+        Gauge.builder("sheetkv.quota.queued", quotaScheduler, q -> stats.apply(q.getStats()).queueDepth())
+                .description("Callers waiting for a quota token")
+                .tag("bucket", bucket)
+                .register(registry);
+        FunctionTimer.builder("sheetkv.quota.wait", quotaScheduler,
+                q -> stats.apply(q.getStats()).delayed(),
+                q -> stats.apply(q.getStats()).totalWaitMillis(), TimeUnit.MILLISECONDS)
+                .description("Time callers waited for a quota token")
+                .tag("bucket", bucket)
+                .register(registry);
+    }
+}
@@ -1,71 +1,210 @@
 package com.example.sheetkv.service;
 
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
-import com.example.sheetkv.adapter.SheetsAdapter;
+import com.example.sheetkv.adapter.SheetBackend;
+import com.example.sheetkv.adapter.SheetInfo;
+import com.example.sheetkv.config.DeleteProperties;
+import com.example.sheetkv.config.IndexProperties;
+import com.example.sheetkv.exception.BackendException;
+import com.example.sheetkv.exception.NotFoundException;
 import com.example.sheetkv.model.FlushResult;
 
+import io.micrometer.observation.annotation.Observed;
+import jakarta.annotation.PreDestroy;
+
 @Service
 public class SyncService {
     private static final Logger logger = LoggerFactory.getLogger(SyncService.class);
 
-    private final SheetsAdapter adapter;
+    private final SheetBackend adapter;
     private final IndexStore indexStore;
-    private Instant lastSyncTime;
+    private final WriteBuffer writeBuffer;
+    private final ValueCache valueCache;
+    private final RowAllocator rowAllocator;
+    private final DeleteProperties deleteProperties;
+    private final CollectionLocks collectionLocks;
+    private final ExecutorService executor;
+    private volatile Instant lastSyncTime;
 
-    public SyncService(SheetsAdapter adapter, IndexStore indexStore) {
+    public SyncService(SheetBackend adapter, IndexStore indexStore, WriteBuffer writeBuffer, ValueCache valueCache,
+            RowAllocator rowAllocator, DeleteProperties deleteProperties, CollectionLocks collectionLocks,
+            IndexProperties indexProperties) {
         this.adapter = adapter;
         this.indexStore = indexStore;
+        this.writeBuffer = writeBuffer;
+        this.valueCache = valueCache;
+        this.rowAllocator = rowAllocator;
+        this.deleteProperties = deleteProperties;
+        this.collectionLocks = collectionLocks;
+        AtomicInteger threads = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(Math.max(1, indexProperties.getReindexParallelism()), runnable -> {
+            Thread thread = new Thread(runnable, "sheetkv-reindex-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
     }
 
+    @Observed(name = "sheetkv.flush", contextualName = "flush.all")
     public FlushResult flush() {
-        var sheets = adapter.listSheets();
-        Map<String, Map<String, Integer>> newIndex = new HashMap<>();
-        Map<String, List<String>> duplicates = new HashMap<>();
-        int totalKeys = 0;
-
-        sheets.forEach(sheet -> {
-            String name = sheet.getProperties().getTitle();
-            List<String> ids = adapter.readColumnA(name);
-            Map<String, Integer> map = new HashMap<>();
-            Map<String, Integer> duplicateCounts = new HashMap<>();
-
-            for (int i = 0; i < ids.size(); i++) {
-                String id = ids.get(i);
-                int row = i + 1;
-                if (id == null || id.isBlank()) {
-                    continue;
-                }
-                if (!map.containsKey(id)) {
-                    map.put(id, row);
-                } else {
-                    duplicateCounts.put(id, duplicateCounts.getOrDefault(id, 1) + 1);
-                }
-            }
+        long started = System.nanoTime();
+        int drained = writeBuffer.drain();
+        if (drained > 0) {
+            logger.info("flush.drained writes={}", drained);
+        }
+        var sheets = adapter.refreshMetadata();
+        List<String> names = sheets.stream().map(SheetInfo::title).toList();
+        // Writes wait for the whole scan and swap; otherwise rows they commit in between would be
+        // missing from the new index and handed out again by the reset allocator.
+        return collectionLocks.exclusiveAll(names, () -> {
+            Map<String, Map<String, Integer>> newIndex = new HashMap<>();
+            Map<String, List<String>> duplicates = new HashMap<>();
+            Map<String, Integer> nextRows = new HashMap<>();
+            Map<String, List<Integer>> freeRows = new HashMap<>();
+            Map<String, Long> collectionMillis = new LinkedHashMap<>();
 
-            if (!duplicateCounts.isEmpty()) {
-                duplicates.put(name, duplicateCounts.keySet().stream().toList());
-                logger.warn("flush.duplicates sheet={} ids={}", name, duplicateCounts.keySet());
+            for (SheetScan scan : scanAll(names)) {
+                String name = scan.name();
+                if (!scan.duplicates().isEmpty()) {
+                    duplicates.put(name, scan.duplicates());
+                }
+                newIndex.put(name, scan.rows());
+                nextRows.put(name, scan.nextRow());
+                freeRows.put(name, scan.freeRows());
+                collectionMillis.put(name, scan.millis());
             }
 
-            newIndex.put(name, map);
+            int totalKeys = newIndex.values().stream().mapToInt(Map::size).sum();
+            indexStore.rebuild(newIndex);
+            rowAllocator.reset(nextRows, freeRows);
+            valueCache.clear();
+            lastSyncTime = Instant.now();
+            long totalMillis = elapsedMillis(started);
+            logger.info("flush.done collections={} keys={} millis={}", sheets.size(), totalKeys, totalMillis);
+            return new FlushResult(sheets.size(), totalKeys, duplicates, lastSyncTime, collectionMillis, totalMillis);
         });
+    }
 
-        totalKeys = newIndex.values().stream().mapToInt(Map::size).sum();
-        indexStore.rebuild(newIndex);
-        lastSyncTime = Instant.now();
+    @Observed(name = "sheetkv.flush", contextualName = "flush.collection")
+    public FlushResult flush(String collection) {
+        long started = System.nanoTime();
+        boolean exists = adapter.getSheetInfos().stream().anyMatch(sheet -> sheet.title().equals(collection))
+                || adapter.refreshMetadata().stream().anyMatch(sheet -> sheet.title().equals(collection));
+        if (!exists) {
+            throw new NotFoundException("Collection not found");
+        }
+        int drained = writeBuffer.drain();
+        if (drained > 0) {
+            logger.info("flush.drained writes={}", drained);
+        }
+        SheetScan scan = reindexScan(collection);
+        Map<String, List<String>> duplicates = scan.duplicates().isEmpty() ? Map.of() : Map.of(collection, scan.duplicates());
+        return new FlushResult(1, scan.rows().size(), duplicates, Instant.now(), Map.of(collection, scan.millis()),
+                elapsedMillis(started));
+    }
 
-        return new FlushResult(sheets.size(), totalKeys, duplicates, lastSyncTime);
+    public int reindex(String collection) {
+        return reindexScan(collection).rows().size();
+    }
+
+    public void markSynced(Instant syncedAt) {
+        lastSyncTime = syncedAt;
     }
 
     public Instant getLastSyncTime() {
         return lastSyncTime;
     }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private SheetScan reindexScan(String collection) {
+        return collectionLocks.exclusive(collection, () -> {
+            SheetScan scan = scan(collection);
+            indexStore.replaceCollection(collection, scan.rows());
+            rowAllocator.restore(collection, scan.nextRow(), scan.freeRows());
+            valueCache.invalidateCollection(collection);
+            logger.info("flush.reindex collection={} keys={} millis={}", collection, scan.rows().size(), scan.millis());
+            return scan;
+        });
+    }
+
+    private List<SheetScan> scanAll(List<String> names) {
+        List<Future<SheetScan>> futures = new ArrayList<>();
+        for (String name : names) {
+            futures.add(executor.submit(() -> scan(name)));
+        }
+        List<SheetScan> scans = new ArrayList<>();
+        try {
+            for (Future<SheetScan> future : futures) {
+                scans.add(future.get());
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new BackendException("Reindex interrupted", ex);
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new BackendException("Reindex failed", ex.getCause());
+        } finally {
+            futures.forEach(future -> future.cancel(true));
+        }
+        return scans;
+    }
+
+    private SheetScan scan(String name) {
+        long started = System.nanoTime();
+        List<String> ids = adapter.readColumnA(name);
+
+        Map<String, Integer> map = new HashMap<>();
+        Map<String, Integer> duplicateCounts = new HashMap<>();
+        List<Integer> blankRows = new ArrayList<>();
+
+        for (int i = 0; i < ids.size(); i++) {
+            String id = ids.get(i);
+            int row = i + 1;
+            if (id == null || id.isBlank()) {
+                blankRows.add(row);
+                continue;
+            }
+            if (!map.containsKey(id)) {
+                map.put(id, row);
+            } else {
+                duplicateCounts.put(id, duplicateCounts.getOrDefault(id, 1) + 1);
+            }
+        }
+
+        if (!duplicateCounts.isEmpty()) {
+            logger.warn("flush.duplicates sheet={} ids={}", name, duplicateCounts.keySet());
+        }
+        List<Integer> freeRows = deleteProperties.isTombstone() ? blankRows : List.of();
+        return new SheetScan(name, map, duplicateCounts.keySet().stream().toList(), ids.size() + 1, freeRows,
+                elapsedMillis(started));
+    }
+
+    private static long elapsedMillis(long startedNanos) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedNanos);
+    }
+
+    private record SheetScan(String name, Map<String, Integer> rows, List<String> duplicates, int nextRow,
+            List<Integer> freeRows, long millis) {
+    }
 }
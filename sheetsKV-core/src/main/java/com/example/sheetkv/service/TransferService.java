@@ -0,0 +1,249 @@
+package com.example.sheetkv.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import com.example.sheetkv.adapter.SheetBackend;
+import com.example.sheetkv.adapter.SheetRow;
+import com.example.sheetkv.config.TransferProperties;
+import com.example.sheetkv.exception.BadRequestException;
+import com.example.sheetkv.exception.ConflictException;
+import com.example.sheetkv.exception.NotFoundException;
+import com.example.sheetkv.model.BatchUpsertResult;
+import com.example.sheetkv.model.DuplicatePolicy;
+import com.example.sheetkv.model.ImportResult;
+import com.example.sheetkv.model.ImportStatus;
+import com.example.sheetkv.model.KeyValueEntry;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Whole-collection NDJSON export and import. Export walks the index with page cursors and reads
+ * each chunk of rows as one range, so memory stays bounded by the chunk size and a slow client
+ * slows the reads down. Import parses the body one line at a time and writes chunks through
+ * {@link KvService#batchUpsert}, which appends new keys as contiguous row blocks.
+ */
+@Service
+public class TransferService {
+    private static final Logger logger = LoggerFactory.getLogger(TransferService.class);
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+            .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    private static final int EXPORT_ATTEMPTS = 3;
+
+    private final SheetBackend adapter;
+    private final IndexStore indexStore;
+    private final WriteBuffer writeBuffer;
+    private final KvService kvService;
+    private final int exportChunkSize;
+    private final int importChunkSize;
+    private final Map<String, ImportProgress> activeImports = new ConcurrentHashMap<>();
+
+    public TransferService(SheetBackend adapter, IndexStore indexStore, WriteBuffer writeBuffer, KvService kvService,
+            TransferProperties properties) {
+        this.adapter = adapter;
+        this.indexStore = indexStore;
+        this.writeBuffer = writeBuffer;
+        this.kvService = kvService;
+        this.exportChunkSize = Math.max(1, properties.getExportChunkSize());
+        this.importChunkSize = Math.max(1, properties.getImportChunkSize());
+    }
+
+    public void requireCollection(String collection) {
+        if (!indexStore.hasCollection(collection)) {
+            throw new NotFoundException("Collection not found");
+        }
+    }
+
+    /** Writes every indexed key of the collection as one {@code {"id","value"}} line, in row order. */
+    public long export(String collection, OutputStream out) throws IOException {
+        requireCollection(collection);
+        long started = System.nanoTime();
+        long exported = 0;
+        try (JsonGenerator json = MAPPER.getFactory().createGenerator(out)) {
+            json.setRootValueSeparator(null);
+            PageCursor cursor = null;
+            do {
+                ExportChunk chunk = readChunk(collection, cursor);
+                for (KeyValueEntry entry : chunk.entries()) {
+                    json.writeStartObject();
+                    json.writeStringField("id", entry.id());
+                    json.writeStringField("value", entry.value());
+                    json.writeEndObject();
+                    json.writeRaw('\n');
+                }
+                json.flush();
+                exported += chunk.entries().size();
+                cursor = chunk.next();
+            } while (cursor != null);
+        }
+        logger.info("kv.export collection={} keys={} millis={}", collection, exported,
+                (System.nanoTime() - started) / 1_000_000);
+        return exported;
+    }
+
+    /**
+     * Reads NDJSON lines of {@code {"id": ..., "value": ...}} and upserts them in chunks. Values
+     * that are not strings are stored as their JSON text. The import is not atomic: chunks
+     * written before a malformed line or a rejected duplicate stay written.
+     */
+    public ImportResult importEntries(String collection, InputStream in, DuplicatePolicy policy,
+            boolean skipExisting) {
+        requireCollection(collection);
+        ImportProgress progress = new ImportProgress(UUID.randomUUID().toString(), collection, Instant.now());
+        activeImports.put(progress.id, progress);
+        long started = System.nanoTime();
+        Set<String> seen = policy == DuplicatePolicy.LAST_WINS ? null : new HashSet<>();
+        Map<String, String> chunk = new LinkedHashMap<>();
+        try (MappingIterator<JsonNode> lines = MAPPER.readerFor(JsonNode.class).readValues(in)) {
+            while (lines.hasNextValue()) {
+                JsonNode line = lines.nextValue();
+                progress.lines++;
+                int lineNumber = lines.getCurrentLocation().getLineNr();
+                KeyValueEntry entry = toEntry(line, lineNumber);
+                if (seen != null && !seen.add(entry.id())) {
+                    if (policy == DuplicatePolicy.REJECT) {
+                        throw new BadRequestException("Duplicate id '" + entry.id() + "' at line " + lineNumber);
+                    }
+                    progress.duplicates++;
+                    continue;
+                }
+                if (skipExisting && indexStore.getRow(collection, entry.id()) != null) {
+                    progress.skipped++;
+                    continue;
+                }
+                if (chunk.put(entry.id(), entry.value()) != null) {
+                    progress.duplicates++;
+                }
+                if (chunk.size() >= importChunkSize) {
+                    writeChunk(collection, chunk, progress);
+                }
+            }
+            writeChunk(collection, chunk, progress);
+        } catch (JsonProcessingException ex) {
+            throw new BadRequestException("Invalid NDJSON at line " + ex.getLocation().getLineNr() + ": "
+                    + ex.getOriginalMessage());
+        } catch (IOException ex) {
+            throw new BadRequestException("Failed to read import body: " + ex.getMessage());
+        } finally {
+            activeImports.remove(progress.id);
+        }
+        long millis = (System.nanoTime() - started) / 1_000_000;
+        logger.info("kv.import.done collection={} lines={} created={} updated={} duplicates={} skipped={} millis={}",
+                collection, progress.lines, progress.created, progress.updated, progress.duplicates, progress.skipped,
+                millis);
+        return new ImportResult(collection, progress.lines, progress.created, progress.updated, progress.duplicates,
+                progress.skipped, progress.chunks, millis);
+    }
+
+    public List<ImportStatus> getActiveImports() {
+        return activeImports.values().stream()
+                .map(progress -> new ImportStatus(progress.id, progress.collection, progress.startedAt,
+                        progress.lines, progress.created, progress.updated, progress.duplicates, progress.skipped,
+                        progress.chunks))
+                .toList();
+    }
+
+    private ExportChunk readChunk(String collection, PageCursor after) {
+        for (int attempt = 1;; attempt++) {
+            IndexPage page = indexStore.seek(collection, after, 0, exportChunkSize);
+            if (page == null) {
+                throw new NotFoundException("Collection not found");
+            }
+            List<KeyValueEntry> entries = new ArrayList<>(page.entries().size());
+            Map<Integer, String> idsByRow = new HashMap<>();
+            for (Map.Entry<String, Integer> entry : page.entries()) {
+                if (writeBuffer.lookup(collection, entry.getKey()) == null) {
+                    idsByRow.put(entry.getValue(), entry.getKey());
+                }
+            }
+            Map<Integer, SheetRow> rows = idsByRow.isEmpty() ? Map.of() : adapter.readRows(collection, idsByRow.keySet());
+            boolean drifted = false;
+            for (Map.Entry<String, Integer> entry : page.entries()) {
+                String id = entry.getKey();
+                String value = writeBuffer.lookup(collection, id);
+                if (value == null) {
+                    SheetRow row = rows.get(entry.getValue());
+                    if (row == null || !id.equals(row.id())) {
+                        drifted = true;
+                        break;
+                    }
+                    value = row.value();
+                }
+                entries.add(new KeyValueEntry(id, value == null ? "" : value));
+            }
+            if (!drifted) {
+                return new ExportChunk(entries, page.next());
+            }
+            if (attempt == EXPORT_ATTEMPTS) {
+                throw new ConflictException("Index out of sync with sheet; run /v1/flush");
+            }
+            logger.warn("kv.export.retry collection={} attempt={}", collection, attempt);
+        }
+    }
+
+    private void writeChunk(String collection, Map<String, String> chunk, ImportProgress progress) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        List<KeyValueEntry> items = new ArrayList<>(chunk.size());
+        chunk.forEach((id, value) -> items.add(new KeyValueEntry(id, value)));
+        chunk.clear();
+        BatchUpsertResult result = kvService.batchUpsert(collection, items);
+        progress.created += result.created().size();
+        progress.updated += result.updated().size();
+        progress.chunks++;
+        logger.info("kv.import collection={} chunk={} lines={} created={} updated={}", collection, progress.chunks,
+                progress.lines, progress.created, progress.updated);
+    }
+
+    private static KeyValueEntry toEntry(JsonNode line, int lineNumber) {
+        JsonNode id = line.get("id");
+        JsonNode value = line.get("value");
+        if (!line.isObject() || id == null || !id.isTextual() || id.asText().isBlank()) {
+            throw new BadRequestException("Line " + lineNumber + " must be an object with a non-blank string id");
+        }
+        if (value == null || value.isNull()) {
+            throw new BadRequestException("Line " + lineNumber + " has no value");
+        }
+        return new KeyValueEntry(id.asText(), value.isTextual() ? value.asText() : value.toString());
+    }
+
+    private record ExportChunk(List<KeyValueEntry> entries, PageCursor next) {
+    }
+
+    private static final class ImportProgress {
+        private final String id;
+        private final String collection;
+        private final Instant startedAt;
+        private volatile long lines;
+        private volatile long created;
+        private volatile long updated;
+        private volatile long duplicates;
+        private volatile long skipped;
+        private volatile int chunks;
+
+        private ImportProgress(String id, String collection, Instant startedAt) {
+            this.id = id;
+            this.collection = collection;
+            this.startedAt = startedAt;
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.sheetkv.service;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.stereotype.Component;
+
+import com.example.sheetkv.config.CacheProperties;
+import com.example.sheetkv.model.CacheStats;
+
+@Component
+public class ValueCache {
+    private static final int ENTRY_OVERHEAD_BYTES = 96;
+
+    private final CacheProperties properties;
+    private final LinkedHashMap<CacheKey, CachedValue> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong expirations = new AtomicLong();
+    private long estimatedBytes;
+
+    public ValueCache(CacheProperties properties) {
+        this.properties = properties;
+    }
+
+    public String get(String collection, String id) {
+        if (!properties.isEnabled()) {
+            return null;
+        }
+        synchronized (this) {
+            CacheKey key = new CacheKey(collection, id);
+            CachedValue cached = entries.get(key);
+            if (cached == null) {
+                misses.incrementAndGet();
+                return null;
+            }
+            if (cached.isExpired(System.nanoTime())) {
+                removeEntry(key);
+                expirations.incrementAndGet();
+                misses.incrementAndGet();
+                return null;
+            }
+            hits.incrementAndGet();
+            return cached.value();
+        }
+    }
+
+    public void put(String collection, String id, String value) {
+        if (!properties.isEnabled() || value == null) {
+            return;
+        }
+        long size = estimateBytes(collection, id, value);
+        if (size > properties.getMaxBytes()) {
+            invalidate(collection, id);
+            return;
+        }
+        long expiresAt = properties.getTtl() == null ? Long.MAX_VALUE : System.nanoTime() + properties.getTtl().toNanos();
+        synchronized (this) {
+            CacheKey key = new CacheKey(collection, id);
+            removeEntry(key);
+            entries.put(key, new CachedValue(value, size, expiresAt));
+            estimatedBytes += size;
+            evictOverflow();
+        }
+    }
+
+    public synchronized void invalidate(String collection, String id) {
+        removeEntry(new CacheKey(collection, id));
+    }
+
+    public synchronized void invalidateCollection(String collection) {
+        Iterator<Map.Entry<CacheKey, CachedValue>> iterator = entries.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<CacheKey, CachedValue> entry = iterator.next();
+            if (entry.getKey().collection().equals(collection)) {
+                estimatedBytes -= entry.getValue().size();
+                iterator.remove();
+            }
+        }
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        estimatedBytes = 0;
+    }
+
+    public synchronized CacheStats getStats() {
+        return new CacheStats(entries.size(), estimatedBytes, hits.get(), misses.get(),
+                evictions.get(), expirations.get());
+    }
+
+    private void evictOverflow() {
+        Iterator<Map.Entry<CacheKey, CachedValue>> iterator = entries.entrySet().iterator();
+        while (iterator.hasNext()
+                && (entries.size() > properties.getMaxEntries() || estimatedBytes > properties.getMaxBytes())) {
+            Map.Entry<CacheKey, CachedValue> eldest = iterator.next();
+            estimatedBytes -= eldest.getValue().size();
+            iterator.remove();
+            evictions.incrementAndGet();
+        }
+    }
+
+    private void removeEntry(CacheKey key) {
+        CachedValue removed = entries.remove(key);
+        if (removed != null) {
+            estimatedBytes -= removed.size();
+        }
+    }
+
+    private static long estimateBytes(String collection, String id, String value) {
+        return ENTRY_OVERHEAD_BYTES + 2L * (collection.length() + id.length() + value.length());
+    }
+
+    private record CacheKey(String collection, String id) {
+    }
+
+    private record CachedValue(String value, long size, long expiresAt) {
+        private boolean isExpired(long now) {
+            return expiresAt != Long.MAX_VALUE && now - expiresAt >= 0;
+        }
+    }
+}
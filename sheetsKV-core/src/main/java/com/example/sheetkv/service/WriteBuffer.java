@@ -0,0 +1,418 @@
+package com.example.sheetkv.service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import com.example.sheetkv.adapter.CellRange;
+import com.example.sheetkv.adapter.SheetBackend;
+import com.example.sheetkv.config.WriteBehindProperties;
+import com.example.sheetkv.config.WriteBehindProperties.Durability;
+import com.example.sheetkv.exception.ApiException;
+import com.example.sheetkv.exception.BackendException;
+import com.example.sheetkv.exception.NotFoundException;
+import com.example.sheetkv.model.KeyValueEntry;
+import com.example.sheetkv.model.WriteBufferStats;
+
+import jakarta.annotation.PreDestroy;
+
+@Component
+public class WriteBuffer {
+    private static final Logger logger = LoggerFactory.getLogger(WriteBuffer.class);
+
+    private final SheetBackend adapter;
+    private final IndexStore indexStore;
+    private final RowAllocator rowAllocator;
+    private final CollectionLocks collectionLocks;
+    private final WriteBehindProperties properties;
+    private final ScheduledExecutorService scheduler;
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final Map<String, CollectionStats> stats = new ConcurrentHashMap<>();
+
+    private Map<BufferKey, PendingWrite> pending = new LinkedHashMap<>();
+    private Map<BufferKey, PendingWrite> inFlight = Map.of();
+
+    public WriteBuffer(SheetBackend adapter, IndexStore indexStore, RowAllocator rowAllocator,
+            CollectionLocks collectionLocks, WriteBehindProperties properties) {
+        this.adapter = adapter;
+        this.indexStore = indexStore;
+        this.rowAllocator = rowAllocator;
+        this.collectionLocks = collectionLocks;
+        this.properties = properties;
+        if (properties.isEnabled()) {
+            long intervalMs = properties.getFlushInterval().toMillis();
+            this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "sheetkv-write-behind");
+                thread.setDaemon(true);
+                return thread;
+            });
+            this.scheduler.scheduleWithFixedDelay(this::flushQuietly, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+        } else {
+            this.scheduler = null;
+        }
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    /**
+     * Buffers a write without waiting for it, with the version the key gets; keys that are not
+     * indexed yet are indexed with that version when they are flushed. Callers that hold locks
+     * while buffering pass the result to {@link #awaitCommit} after releasing them. Throws
+     * {@link BackendException} without buffering anything when the buffer holds {@code maxPending} keys.
+     */
+    public CompletableFuture<Void> submit(String collection, String id, String value, long version) {
+        return submitAll(collection, List.of(new KeyValueEntry(id, value)), Map.of(id, version));
+    }
+
+    public CompletableFuture<Void> submitAll(String collection, List<KeyValueEntry> items, Map<String, Long> versions) {
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        boolean full;
+        synchronized (this) {
+            ensureCapacity(collection, items);
+            for (KeyValueEntry item : items) {
+                futures.add(enqueue(collection, item.id(), item.value(), versions.getOrDefault(item.id(), 0L)));
+            }
+            full = pending.size() >= properties.getMaxBatchSize();
+        }
+        if (full && scheduler != null) {
+            scheduler.execute(this::flushQuietly);
+        }
+        return CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new));
+    }
+
+    /** Waits for buffered writes to reach the sheet in {@code GROUP_COMMIT} mode; returns at once otherwise. */
+    public void awaitCommit(CompletableFuture<Void> future) {
+        await(future);
+    }
+
+    public synchronized String lookup(String collection, String id) {
+        PendingWrite write = buffered(new BufferKey(collection, id));
+        return write == null ? null : write.value;
+    }
+
+    /** Version of a buffered write, or null if the key has none buffered. */
+    public synchronized Long lookupVersion(String collection, String id) {
+        PendingWrite write = buffered(new BufferKey(collection, id));
+        return write == null || write.version == 0 ? null : write.version;
+    }
+
+    /**
+     * Drops a buffered write of the key. If the key is part of the batch being flushed, waits
+     * for that batch first, so a delete that follows sees the row the batch created or updated
+     * instead of racing it. Callers must not hold collection locks.
+     */
+    public boolean discard(String collection, String id) {
+        BufferKey key = new BufferKey(collection, id);
+        PendingWrite write;
+        while (true) {
+            synchronized (this) {
+                if (!inFlight.containsKey(key)) {
+                    write = pending.remove(key);
+                    break;
+                }
+            }
+            flushLock.lock();
+            flushLock.unlock();
+        }
+        if (write == null) {
+            return false;
+        }
+        write.committed.complete(null);
+        return true;
+    }
+
+    public void discardCollection(String collection) {
+        List<PendingWrite> removed = new ArrayList<>();
+        synchronized (this) {
+            var iterator = pending.entrySet().iterator();
+            while (iterator.hasNext()) {
+                var entry = iterator.next();
+                if (entry.getKey().collection().equals(collection)) {
+                    removed.add(entry.getValue());
+                    iterator.remove();
+                }
+            }
+        }
+        removed.forEach(write -> write.committed.completeExceptionally(new NotFoundException("Collection not found")));
+        stats.remove(collection);
+    }
+
+    public int drain() {
+        return flush();
+    }
+
+    public Map<String, WriteBufferStats> getStats() {
+        Map<String, Integer> pendingCounts = new HashMap<>();
+        synchronized (this) {
+            pending.keySet().forEach(key -> pendingCounts.merge(key.collection(), 1, Integer::sum));
+        }
+        Map<String, WriteBufferStats> result = new TreeMap<>();
+        stats.forEach((collection, collectionStats) ->
+                result.put(collection, collectionStats.toStats(pendingCounts.getOrDefault(collection, 0))));
+        return result;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (scheduler == null) {
+            return;
+        }
+        scheduler.shutdown();
+        int flushed = flush();
+        logger.info("writeBehind.shutdown drained={}", flushed);
+    }
+
+    private PendingWrite buffered(BufferKey key) {
+        PendingWrite write = pending.get(key);
+        return write == null ? inFlight.get(key) : write;
+    }
+
+    private void ensureCapacity(String collection, List<KeyValueEntry> items) {
+        long added = items.stream().map(item -> new BufferKey(collection, item.id()))
+                .distinct().filter(key -> !pending.containsKey(key)).count();
+        if (added > 0 && pending.size() + added > properties.getMaxPending()) {
+            logger.warn("writeBehind.reject collection={} writes={} pending={}", collection, items.size(), pending.size());
+            throw new BackendException("Write buffer is full");
+        }
+    }
+
+    private CompletableFuture<Void> enqueue(String collection, String id, String value, long version) {
+        BufferKey key = new BufferKey(collection, id);
+        PendingWrite write = pending.get(key);
+        if (write == null) {
+            write = new PendingWrite(value, version);
+            pending.put(key, write);
+        } else {
+            write.value = value;
+            write.version = version;
+            statsFor(collection).coalesced.incrementAndGet();
+        }
+        return write.committed;
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (Exception ex) {
+            logger.error("writeBehind.flush failed", ex);
+        }
+    }
+
+    private int flush() {
+        flushLock.lock();
+        try {
+            Map<BufferKey, PendingWrite> batch;
+            synchronized (this) {
+                if (pending.isEmpty()) {
+                    return 0;
+                }
+                batch = pending;
+                pending = new LinkedHashMap<>();
+                inFlight = batch;
+            }
+            Set<String> collections = new TreeSet<>();
+            batch.keySet().forEach(key -> collections.add(key.collection()));
+            try {
+                return collectionLocks.sharedAll(collections, () -> writeBatch(batch));
+            } finally {
+                synchronized (this) {
+                    inFlight = Map.of();
+                }
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private int writeBatch(Map<BufferKey, PendingWrite> batch) {
+        List<CellRange> data = new ArrayList<>();
+        Map<String, List<Map.Entry<BufferKey, PendingWrite>>> creates = new LinkedHashMap<>();
+        Map<BufferKey, PendingWrite> writes = new LinkedHashMap<>();
+        List<BufferKey> updates = new ArrayList<>();
+
+        for (Map.Entry<BufferKey, PendingWrite> entry : batch.entrySet()) {
+            BufferKey key = entry.getKey();
+            if (!indexStore.hasCollection(key.collection())) {
+                logger.warn("writeBehind.drop collection={} id={} reason=collection-missing", key.collection(), key.id());
+                entry.getValue().committed.completeExceptionally(new NotFoundException("Collection not found"));
+                continue;
+            }
+            writes.put(key, entry.getValue());
+            Integer row = indexStore.getRow(key.collection(), key.id());
+            if (row == null) {
+                creates.computeIfAbsent(key.collection(), name -> new ArrayList<>()).add(entry);
+            } else {
+                data.add(CellRange.value(key.collection(), row, entry.getValue().value));
+                updates.add(key);
+            }
+        }
+
+        Map<BufferKey, Integer> createdRows = new HashMap<>();
+        Map<String, int[]> allocations = new HashMap<>();
+        try {
+            creates.forEach((collection, entries) -> {
+                int[] rows = rowAllocator.allocate(collection, entries.size());
+                allocations.put(collection, rows);
+                List<List<String>> values = new ArrayList<>();
+                for (int i = 0; i < entries.size(); i++) {
+                    var entry = entries.get(i);
+                    values.add(List.of(entry.getKey().id(), entry.getValue().value));
+                    createdRows.put(entry.getKey(), rows[i]);
+                }
+                data.addAll(RowRanges.rows(collection, rows, values));
+            });
+            adapter.batchUpdateValues(data);
+        } catch (ApiException ex) {
+            allocations.forEach(rowAllocator::rollback);
+            return onFailure(writes, ex);
+        }
+
+        createdRows.forEach((key, row) -> {
+            long version = batch.get(key).version;
+            if (version == 0) {
+                indexStore.put(key.collection(), key.id(), row);
+            } else {
+                indexStore.put(key.collection(), key.id(), row, version);
+            }
+        });
+        // A key written again while its create was in flight got a version the index never saw.
+        for (BufferKey key : updates) {
+            long version = batch.get(key).version;
+            if (version != 0) {
+                indexStore.setVersion(key.collection(), key.id(), version);
+            }
+        }
+        Instant now = Instant.now();
+        Map<String, Integer> perCollection = new HashMap<>();
+        writes.keySet().forEach(key -> perCollection.merge(key.collection(), 1, Integer::sum));
+        perCollection.forEach((collection, count) -> {
+            CollectionStats collectionStats = statsFor(collection);
+            collectionStats.flushes.incrementAndGet();
+            collectionStats.flushed.addAndGet(count);
+            collectionStats.lastFlushAt = now;
+        });
+        writes.values().forEach(write -> write.committed.complete(null));
+        logger.info("writeBehind.flush writes={} ranges={} collections={}", writes.size(), data.size(), perCollection.size());
+        return writes.size();
+    }
+
+    /**
+     * Handles a batch the sheet refused. A batch refused as malformed is split in halves and each
+     * half written again, so a single bad write does not hold back the rest. Writes that failed with
+     * {@code 429} or {@code 5xx} are buffered again in {@code ASYNC} mode until they run out of
+     * attempts; every other failed write is dropped and its future failed. Returns the writes
+     * that reached the sheet.
+     */
+    private int onFailure(Map<BufferKey, PendingWrite> writes, ApiException ex) {
+        boolean retryable = isRetryable(ex);
+        if (!retryable && writes.size() > 1) {
+            logger.warn("writeBehind.split writes={} status={}", writes.size(), ex.getStatus().value());
+            Map<BufferKey, PendingWrite> first = new LinkedHashMap<>();
+            Map<BufferKey, PendingWrite> second = new LinkedHashMap<>();
+            writes.forEach((key, write) -> (first.size() < writes.size() / 2 ? first : second).put(key, write));
+            return writeBatch(first) + writeBatch(second);
+        }
+        writes.keySet().forEach(key -> statsFor(key.collection()).failures.incrementAndGet());
+        if (!retryable || properties.getDurability() == Durability.GROUP_COMMIT) {
+            drop(writes, ex);
+            return 0;
+        }
+        Map<BufferKey, PendingWrite> retry = new LinkedHashMap<>();
+        Map<BufferKey, PendingWrite> exhausted = new LinkedHashMap<>();
+        writes.forEach((key, write) -> (++write.attempts < properties.getMaxAttempts() ? retry : exhausted).put(key, write));
+        drop(exhausted, ex);
+        if (!retry.isEmpty()) {
+            synchronized (this) {
+                // Writes buffered since the batch left are newer and replace the failed ones.
+                Map<BufferKey, PendingWrite> requeued = new LinkedHashMap<>(retry);
+                requeued.putAll(pending);
+                pending = requeued;
+            }
+            logger.warn("writeBehind.requeue writes={} status={}", retry.size(), ex.getStatus().value());
+        }
+        return 0;
+    }
+
+    private static boolean isRetryable(ApiException ex) {
+        return ex.getStatus().value() == 429 || ex.getStatus().is5xxServerError();
+    }
+
+    private void drop(Map<BufferKey, PendingWrite> writes, ApiException ex) {
+        writes.forEach((key, write) -> {
+            if (properties.getDurability() == Durability.ASYNC) {
+                logger.error("writeBehind.drop collection={} id={} status={} attempts={}", key.collection(), key.id(),
+                        ex.getStatus().value(), write.attempts);
+            }
+            write.committed.completeExceptionally(ex);
+        });
+    }
+
+    private CollectionStats statsFor(String collection) {
+        return stats.computeIfAbsent(collection, key -> new CollectionStats());
+    }
+
+    private void await(CompletableFuture<Void> future) {
+        if (properties.getDurability() != Durability.GROUP_COMMIT) {
+            return;
+        }
+        try {
+            future.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new BackendException("Interrupted while waiting for write-behind flush", ex);
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof ApiException apiException) {
+                throw apiException;
+            }
+            throw new BackendException("Write-behind flush failed", ex.getCause());
+        }
+    }
+
+    private record BufferKey(String collection, String id) {
+    }
+
+    private static final class PendingWrite {
+        private final CompletableFuture<Void> committed = new CompletableFuture<>();
+        private volatile String value;
+        private volatile long version;
+        private int attempts;
+
+        private PendingWrite(String value, long version) {
+            this.value = value;
+            this.version = version;
+        }
+    }
+
+    private static final class CollectionStats {
+        private final AtomicLong flushes = new AtomicLong();
+        private final AtomicLong flushed = new AtomicLong();
+        private final AtomicLong coalesced = new AtomicLong();
+        private final AtomicLong failures = new AtomicLong();
+        private volatile Instant lastFlushAt;
+
+        private WriteBufferStats toStats(int pendingCount) {
+            return new WriteBufferStats(flushes.get(), flushed.get(), coalesced.get(), failures.get(),
+                    pendingCount, lastFlushAt);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.sheetkv.service;
+
+import java.time.Duration;
+
+import com.example.sheetkv.adapter.LocalSheetBackend;
+import com.example.sheetkv.adapter.QuotaScheduler;
+import com.example.sheetkv.config.CacheProperties;
+import com.example.sheetkv.config.DeleteProperties;
+import com.example.sheetkv.config.DeleteProperties.DeleteMode;
+import com.example.sheetkv.config.IndexProperties;
+import com.example.sheetkv.config.LocalBackendProperties;
+import com.example.sheetkv.config.QuotaProperties;
+import com.example.sheetkv.config.ReadProperties;
+import com.example.sheetkv.config.RowTrackingProperties;
+import com.example.sheetkv.config.WriteBehindProperties;
+
+/** Core services wired by hand against the local backend, with one empty collection. */
+final class KvFixture implements AutoCloseable {
+    static final String COLLECTION = "test";
+
+    final LocalBackendProperties backendProperties = new LocalBackendProperties();
+    final LocalSheetBackend backend;
+    final IndexStore indexStore;
+    final RowAllocator rowAllocator;
+    final WriteBuffer writeBuffer;
+    final SyncService syncService;
+    final KvService kvService;
+
+    KvFixture() {
+        this(false, DeleteMode.PHYSICAL);
+    }
+
+    KvFixture(boolean writeBehind, DeleteMode deleteMode) {
+        QuotaProperties quotaProperties = new QuotaProperties();
+        quotaProperties.setEnabled(false);
+        backend = new LocalSheetBackend(backendProperties, new QuotaScheduler(quotaProperties));
+
+        IndexProperties indexProperties = new IndexProperties();
+        indexStore = new IndexStore(indexProperties);
+        rowAllocator = new RowAllocator(backend, new RowTrackingProperties());
+        CollectionLocks collectionLocks = new CollectionLocks();
+        WriteBehindProperties writeBehindProperties = new WriteBehindProperties();
+        writeBehindProperties.setEnabled(writeBehind);
+        writeBehindProperties.setFlushInterval(Duration.ofMillis(20));
+        writeBuffer = new WriteBuffer(backend, indexStore, rowAllocator, collectionLocks, writeBehindProperties);
+        ValueCache valueCache = new ValueCache(new CacheProperties());
+        DeleteProperties deleteProperties = new DeleteProperties();
+        deleteProperties.setMode(deleteMode);
+        ReadProperties readProperties = new ReadProperties();
+        readProperties.setBatchWindow(Duration.ZERO);
+        syncService = new SyncService(backend, indexStore, writeBuffer, valueCache, rowAllocator, deleteProperties,
+                collectionLocks, indexProperties);
+        kvService = new KvService(backend, indexStore, writeBuffer, valueCache, rowAllocator, collectionLocks,
+                deleteProperties, new CellReader(backend, readProperties), new KeyLocks());
+        new CollectionsService(backend, indexStore, writeBuffer, valueCache, rowAllocator).create(COLLECTION);
+    }
+
+    @Override
+    public void close() {
+        syncService.shutdown();
+        writeBuffer.shutdown();
+    }
+}
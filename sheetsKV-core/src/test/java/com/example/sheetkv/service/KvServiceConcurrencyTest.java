@@ -0,0 +1,128 @@
+package com.example.sheetkv.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import com.example.sheetkv.config.DeleteProperties.DeleteMode;
+import com.example.sheetkv.exception.NotFoundException;
+import com.example.sheetkv.model.KeyValueEntry;
+import com.example.sheetkv.model.PageResult;
+
+/**
+ * Writers own disjoint key ranges, so each knows what its keys must hold while a reindexer
+ * rebuilds the index under them.
+ */
+class KvServiceConcurrencyTest {
+    private static final String COLLECTION = KvFixture.COLLECTION;
+    private static final int WRITERS = 8;
+    private static final int KEYS_PER_WRITER = 40;
+    private static final int OPERATIONS = 400;
+
+    @ParameterizedTest(name = "writeBehind={0} deletes={1}")
+    @CsvSource({ "false, PHYSICAL", "false, TOMBSTONE", "true, PHYSICAL", "true, TOMBSTONE" })
+    void concurrentPutsGetsDeletesAndReindexesKeepEveryKey(boolean writeBehind, DeleteMode deleteMode)
+            throws Exception {
+        try (KvFixture fixture = new KvFixture(writeBehind, deleteMode)) {
+            KvService kv = fixture.kvService;
+            ExecutorService pool = Executors.newFixedThreadPool(WRITERS + 1);
+            AtomicBoolean writing = new AtomicBoolean(true);
+            try {
+                List<Future<Map<String, String>>> writers = new ArrayList<>();
+                for (int w = 0; w < WRITERS; w++) {
+                    int writer = w;
+                    writers.add(pool.submit(() -> write(kv, writer)));
+                }
+                Future<Integer> reindexes = pool.submit(() -> {
+                    int count = 0;
+                    while (writing.get()) {
+                        if (count % 4 == 3) {
+                            fixture.syncService.flush();
+                        } else {
+                            fixture.syncService.reindex(COLLECTION);
+                        }
+                        count++;
+                    }
+                    return count;
+                });
+
+                Map<String, String> expected = new HashMap<>();
+                try {
+                    for (Future<Map<String, String>> writer : writers) {
+                        expected.putAll(writer.get(60, TimeUnit.SECONDS));
+                    }
+                } finally {
+                    writing.set(false);
+                }
+                assertTrue(reindexes.get(60, TimeUnit.SECONDS) > 0);
+
+                fixture.writeBuffer.drain();
+                assertContents(kv, expected);
+                fixture.syncService.flush();
+                assertContents(kv, expected);
+            } finally {
+                pool.shutdownNow();
+            }
+        }
+    }
+
+    private static Map<String, String> write(KvService kv, int writer) {
+        Random random = new Random(writer);
+        Map<String, String> expected = new HashMap<>();
+        for (int i = 0; i < OPERATIONS; i++) {
+            String id = "w" + writer + "-k" + random.nextInt(KEYS_PER_WRITER);
+            switch (random.nextInt(4)) {
+                case 0, 1 -> {
+                    String value = id + "-v" + i;
+                    kv.upsert(COLLECTION, id, value);
+                    expected.put(id, value);
+                }
+                case 2 -> {
+                    if (expected.remove(id) != null) {
+                        kv.delete(COLLECTION, id);
+                    } else {
+                        assertThrows(NotFoundException.class, () -> kv.delete(COLLECTION, id));
+                    }
+                }
+                default -> {
+                    String value = expected.get(id);
+                    if (value == null) {
+                        assertThrows(NotFoundException.class, () -> kv.get(COLLECTION, id));
+                    } else {
+                        assertEquals(value, kv.get(COLLECTION, id), id);
+                    }
+                }
+            }
+        }
+        return expected;
+    }
+
+    private static void assertContents(KvService kv, Map<String, String> expected) {
+        Map<String, String> listed = new HashMap<>();
+        String cursor = null;
+        do {
+            PageResult<KeyValueEntry> page = kv.listEntries(COLLECTION, 50, cursor);
+            for (KeyValueEntry entry : page.items()) {
+                assertNull(listed.put(entry.id(), entry.value()), "listed twice: " + entry.id());
+            }
+            cursor = page.nextCursor();
+        } while (cursor != null);
+        assertEquals(expected, listed);
+        expected.forEach((id, value) -> assertEquals(value, kv.get(COLLECTION, id), id));
+    }
+}
@@ -0,0 +1,129 @@
+package com.example.sheetkv.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.example.sheetkv.exception.BadRequestException;
+import com.example.sheetkv.model.PageResult;
+
+class KvServicePagingTest {
+    private static final String COLLECTION = KvFixture.COLLECTION;
+    private static final int KEYS = 50;
+    private static final int LIMIT = 7;
+
+    private KvFixture fixture;
+    private KvService kv;
+
+    @BeforeEach
+    void setUp() {
+        fixture = new KvFixture();
+        kv = fixture.kvService;
+        for (int i = 0; i < KEYS; i++) {
+            kv.upsert(COLLECTION, key(i), "v" + i);
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        fixture.close();
+    }
+
+    @Test
+    void pagesVisitEveryKeyOnceInRowOrder() {
+        assertEquals(keys(0, KEYS), listAll(page -> {
+        }));
+    }
+
+    @Test
+    void cursorResumesAfterItsKeyWhenEarlierRowsAreDeleted() {
+        List<String> listed = listAll(page -> {
+            if (page == 1) {
+                // Already listed keys: every later row moves up, the cursor key included.
+                kv.delete(COLLECTION, key(0));
+                kv.delete(COLLECTION, key(3));
+                kv.delete(COLLECTION, key(40));
+            }
+        });
+
+        List<String> expected = keys(0, KEYS);
+        expected.remove(key(40));
+        assertEquals(expected, listed);
+    }
+
+    @Test
+    void cursorSurvivesAReindex() {
+        List<String> listed = listAll(page -> {
+            if (page == 2) {
+                fixture.syncService.reindex(COLLECTION);
+            }
+        });
+
+        assertEquals(keys(0, KEYS), listed);
+    }
+
+    @Test
+    void cursorWhoseKeyIsGoneResumesByRowAfterAReindex() {
+        PageResult<String> first = kv.listKeys(COLLECTION, LIMIT, null);
+        kv.delete(COLLECTION, first.items().get(LIMIT - 1));
+        fixture.syncService.reindex(COLLECTION);
+
+        PageResult<String> second = kv.listKeys(COLLECTION, LIMIT, first.nextCursor());
+
+        assertEquals(keys(LIMIT, 2 * LIMIT), second.items());
+    }
+
+    @Test
+    void numericOffsetsAreStillAccepted() {
+        assertEquals(keys(10, 10 + LIMIT), kv.listKeys(COLLECTION, LIMIT, "10").items());
+        assertEquals(keys(10, 10 + LIMIT), kv.listKeys(COLLECTION, LIMIT, 10).items());
+    }
+
+    @Test
+    void lastPageHasNoCursorAndBadCursorsAreRejected() {
+        PageResult<String> last = kv.listKeys(COLLECTION, KEYS, null);
+
+        assertEquals(KEYS, last.items().size());
+        assertNull(last.nextCursor());
+        assertThrows(BadRequestException.class, () -> kv.listKeys(COLLECTION, LIMIT, "%%%"));
+    }
+
+    /** Lists every key, calling {@code betweenPages} with the number of pages read so far. */
+    private List<String> listAll(Consumer<Integer> betweenPages) {
+        List<String> listed = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            PageResult<String> page = kv.listKeys(COLLECTION, LIMIT, cursor);
+            listed.addAll(page.items());
+            cursor = page.nextCursor();
+            if (cursor != null) {
+                assertEquals(LIMIT, page.items().size());
+                assertNotNull(PageCursor.decode(cursor));
+            }
+            betweenPages.accept(++pages);
+        } while (cursor != null);
+        return listed;
+    }
+
+    private static List<String> keys(int from, int to) {
+        List<String> keys = new ArrayList<>();
+        for (int i = from; i < to; i++) {
+            keys.add(key(i));
+        }
+        return keys;
+    }
+
+    private static String key(int index) {
+        return String.format("k%02d", index);
+    }
+}
@@ -0,0 +1,194 @@
+package com.example.sheetkv.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import com.example.sheetkv.adapter.SheetRow;
+import com.example.sheetkv.config.DeleteProperties.DeleteMode;
+import com.example.sheetkv.exception.BackendException;
+import com.example.sheetkv.exception.BadRequestException;
+import com.example.sheetkv.exception.NotFoundException;
+import com.example.sheetkv.exception.PreconditionFailedException;
+import com.example.sheetkv.model.TxnOperation;
+import com.example.sheetkv.model.TxnOperationType;
+import com.example.sheetkv.model.TxnResult;
+import com.example.sheetkv.model.VersionedValue;
+
+class KvServiceTransactionTest {
+    private static final String COLLECTION = KvFixture.COLLECTION;
+    private static final int THREADS = 6;
+    private static final int TRANSFERS = 20;
+    private static final int BALANCE = 1_000;
+
+    @ParameterizedTest(name = "writeBehind={0} deletes={1}")
+    @CsvSource({ "false, PHYSICAL", "false, TOMBSTONE", "true, PHYSICAL", "true, TOMBSTONE" })
+    void appliesPutsDeletesAndChecksTogether(boolean writeBehind, DeleteMode deleteMode) {
+        try (KvFixture fixture = new KvFixture(writeBehind, deleteMode)) {
+            KvService kv = fixture.kvService;
+            long a = kv.upsert(COLLECTION, "a", "1", null);
+            long b = kv.upsert(COLLECTION, "b", "2", null);
+            kv.upsert(COLLECTION, "c", "3", null);
+
+            TxnResult result = kv.transact(COLLECTION, List.of(
+                    check("a", a),
+                    put("b", "20", b),
+                    put("d", "4", KvService.ABSENT),
+                    delete("c")));
+
+            assertEquals(List.of("d"), result.created());
+            assertEquals(List.of("b"), result.updated());
+            assertEquals(List.of("c"), result.deleted());
+            assertEquals(Map.of("b", kv.getVersion(COLLECTION, "b"), "d", kv.getVersion(COLLECTION, "d")),
+                    result.versions());
+            assertValues(kv);
+            fixture.syncService.flush();
+            assertValues(kv);
+        }
+    }
+
+    @ParameterizedTest(name = "writeBehind={0} deletes={1}")
+    @CsvSource({ "false, PHYSICAL", "false, TOMBSTONE", "true, PHYSICAL", "true, TOMBSTONE" })
+    void staleCheckWritesNothing(boolean writeBehind, DeleteMode deleteMode) {
+        try (KvFixture fixture = new KvFixture(writeBehind, deleteMode)) {
+            KvService kv = fixture.kvService;
+            long a = kv.upsert(COLLECTION, "a", "1", null);
+            kv.upsert(COLLECTION, "a", "2", null);
+            long b = kv.upsert(COLLECTION, "b", "2", null);
+            kv.upsert(COLLECTION, "c", "3", null);
+            fixture.writeBuffer.drain();
+            List<SheetRow> before = fixture.backend.readSheetRows(COLLECTION);
+
+            assertThrows(PreconditionFailedException.class, () -> kv.transact(COLLECTION, List.of(
+                    put("b", "20", null),
+                    put("e", "5", null),
+                    delete("c"),
+                    check("a", a))));
+
+            assertEquals(before, fixture.backend.readSheetRows(COLLECTION));
+            assertEquals(new VersionedValue("2", b), kv.getVersioned(COLLECTION, "b"));
+            assertEquals("3", kv.get(COLLECTION, "c"));
+            assertThrows(NotFoundException.class, () -> kv.get(COLLECTION, "e"));
+        }
+    }
+
+    @ParameterizedTest(name = "deletes={0}")
+    @EnumSource(DeleteMode.class)
+    void failedCommitWritesNothingAndFreesItsRows(DeleteMode deleteMode) {
+        try (KvFixture fixture = new KvFixture(false, deleteMode)) {
+            KvService kv = fixture.kvService;
+            kv.upsert(COLLECTION, "a", "1");
+            kv.upsert(COLLECTION, "b", "2");
+            List<SheetRow> before = fixture.backend.readSheetRows(COLLECTION);
+
+            fixture.backendProperties.setErrorRate(1.0);
+            assertThrows(BackendException.class, () -> kv.transact(COLLECTION,
+                    List.of(put("a", "10", null), put("c", "3", null), delete("b"))));
+            fixture.backendProperties.setErrorRate(0);
+
+            assertEquals(before, fixture.backend.readSheetRows(COLLECTION));
+            assertEquals("1", kv.get(COLLECTION, "a"));
+            assertEquals("2", kv.get(COLLECTION, "b"));
+            kv.transact(COLLECTION, List.of(put("c", "3", null)));
+            fixture.syncService.flush();
+            assertEquals("3", kv.get(COLLECTION, "c"));
+            assertEquals(3, kv.listKeys(COLLECTION, 10, null).items().size());
+        }
+    }
+
+    @Test
+    void malformedTransactionsAreRejected() {
+        try (KvFixture fixture = new KvFixture()) {
+            KvService kv = fixture.kvService;
+
+            assertThrows(BadRequestException.class, () -> kv.transact(COLLECTION, List.of(put("a", null, null))));
+            assertThrows(BadRequestException.class, () -> kv.transact(COLLECTION,
+                    List.of(new TxnOperation(TxnOperationType.CHECK, "a", null, null))));
+            assertThrows(BadRequestException.class, () -> kv.transact(COLLECTION,
+                    List.of(put("a", "1", null), delete("a"))));
+            assertThrows(BadRequestException.class, () -> kv.transact(COLLECTION,
+                    List.of(check("a", 1), put("a", "1", 2L))));
+            assertThrows(NotFoundException.class, () -> kv.transact("missing", List.of(put("a", "1", null))));
+        }
+    }
+
+    /** Transfers between two keys through conditional transactions keep their total. */
+    @ParameterizedTest(name = "writeBehind={0} deletes={1}")
+    @CsvSource({ "false, PHYSICAL", "false, TOMBSTONE", "true, PHYSICAL", "true, TOMBSTONE" })
+    void concurrentTransfersKeepTheTotal(boolean writeBehind, DeleteMode deleteMode) throws Exception {
+        try (KvFixture fixture = new KvFixture(writeBehind, deleteMode)) {
+            KvService kv = fixture.kvService;
+            kv.upsert(COLLECTION, "from", String.valueOf(BALANCE));
+            kv.upsert(COLLECTION, "to", String.valueOf(BALANCE));
+            ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+            try {
+                List<Future<Void>> workers = new ArrayList<>();
+                for (int t = 0; t < THREADS; t++) {
+                    int thread = t;
+                    workers.add(pool.submit(() -> {
+                        transfer(kv, thread % 2 == 0 ? "from" : "to", thread % 2 == 0 ? "to" : "from");
+                        return null;
+                    }));
+                }
+                for (Future<Void> worker : workers) {
+                    worker.get(60, TimeUnit.SECONDS);
+                }
+            } finally {
+                pool.shutdownNow();
+            }
+
+            fixture.syncService.flush();
+            int from = Integer.parseInt(kv.get(COLLECTION, "from"));
+            int to = Integer.parseInt(kv.get(COLLECTION, "to"));
+            assertEquals(2 * BALANCE, from + to);
+            assertTrue(from >= 0 && to >= 0);
+        }
+    }
+
+    private static void transfer(KvService kv, String source, String target) {
+        for (int done = 0; done < TRANSFERS;) {
+            VersionedValue debit = kv.getVersioned(COLLECTION, source);
+            VersionedValue credit = kv.getVersioned(COLLECTION, target);
+            try {
+                kv.transact(COLLECTION, List.of(
+                        put(source, String.valueOf(Integer.parseInt(debit.value()) - 1), debit.version()),
+                        put(target, String.valueOf(Integer.parseInt(credit.value()) + 1), credit.version())));
+                done++;
+            } catch (PreconditionFailedException ex) {
+                // Another transfer got in first; read both balances again.
+            }
+        }
+    }
+
+    private static void assertValues(KvService kv) {
+        assertEquals("1", kv.get(COLLECTION, "a"));
+        assertEquals("20", kv.get(COLLECTION, "b"));
+        assertEquals("4", kv.get(COLLECTION, "d"));
+        assertThrows(NotFoundException.class, () -> kv.get(COLLECTION, "c"));
+    }
+
+    private static TxnOperation put(String id, String value, Long expectedVersion) {
+        return new TxnOperation(TxnOperationType.PUT, id, value, expectedVersion);
+    }
+
+    private static TxnOperation delete(String id) {
+        return new TxnOperation(TxnOperationType.DELETE, id, null, null);
+    }
+
+    private static TxnOperation check(String id, long expectedVersion) {
+        return new TxnOperation(TxnOperationType.CHECK, id, null, expectedVersion);
+    }
+}
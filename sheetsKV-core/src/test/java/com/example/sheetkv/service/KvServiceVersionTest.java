@@ -0,0 +1,119 @@
+package com.example.sheetkv.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import com.example.sheetkv.config.DeleteProperties.DeleteMode;
+import com.example.sheetkv.exception.PreconditionFailedException;
+import com.example.sheetkv.model.KeyValueEntry;
+import com.example.sheetkv.model.VersionedValue;
+
+class KvServiceVersionTest {
+    private static final String COLLECTION = KvFixture.COLLECTION;
+    private static final int THREADS = 8;
+    private static final int INCREMENTS = 25;
+
+    @ParameterizedTest(name = "writeBehind={0}")
+    @ValueSource(booleans = { false, true })
+    void writesWithAStaleVersionFailAndChangeNothing(boolean writeBehind) {
+        try (KvFixture fixture = new KvFixture(writeBehind, DeleteMode.PHYSICAL)) {
+            KvService kv = fixture.kvService;
+            long created = kv.upsert(COLLECTION, "a", "one", KvService.ABSENT);
+            long updated = kv.upsert(COLLECTION, "a", "two", created);
+
+            assertNotEquals(created, updated);
+            assertEquals(new VersionedValue("two", updated), kv.getVersioned(COLLECTION, "a"));
+            assertThrows(PreconditionFailedException.class, () -> kv.upsert(COLLECTION, "a", "three", created));
+            assertThrows(PreconditionFailedException.class, () -> kv.delete(COLLECTION, "a", created));
+            assertEquals(new VersionedValue("two", updated), kv.getVersioned(COLLECTION, "a"));
+
+            kv.delete(COLLECTION, "a", updated);
+            assertNull(kv.getVersion(COLLECTION, "a"));
+        }
+    }
+
+    @ParameterizedTest(name = "writeBehind={0}")
+    @ValueSource(booleans = { false, true })
+    void absentAndAnyRequireTheKeyToBeMissingOrPresent(boolean writeBehind) {
+        try (KvFixture fixture = new KvFixture(writeBehind, DeleteMode.PHYSICAL)) {
+            KvService kv = fixture.kvService;
+            assertThrows(PreconditionFailedException.class, () -> kv.upsert(COLLECTION, "a", "one", KvService.ANY));
+
+            kv.upsert(COLLECTION, "a", "one", KvService.ABSENT);
+
+            assertThrows(PreconditionFailedException.class, () -> kv.upsert(COLLECTION, "a", "two", KvService.ABSENT));
+            kv.upsert(COLLECTION, "a", "two", KvService.ANY);
+            assertEquals("two", kv.get(COLLECTION, "a"));
+        }
+    }
+
+    @ParameterizedTest(name = "writeBehind={0}")
+    @ValueSource(booleans = { false, true })
+    void batchWithOneStaleVersionWritesNothing(boolean writeBehind) {
+        try (KvFixture fixture = new KvFixture(writeBehind, DeleteMode.PHYSICAL)) {
+            KvService kv = fixture.kvService;
+            long version = kv.upsert(COLLECTION, "a", "one", null);
+            kv.upsert(COLLECTION, "a", "two", null);
+
+            assertThrows(PreconditionFailedException.class, () -> kv.batchUpsert(COLLECTION,
+                    List.of(new KeyValueEntry("a", "three"), new KeyValueEntry("b", "new")), Map.of("a", version)));
+
+            assertEquals("two", kv.get(COLLECTION, "a"));
+            assertNull(kv.getVersion(COLLECTION, "b"));
+        }
+    }
+
+    /** Every increment reads a version and writes against it, so none may be lost. */
+    @ParameterizedTest(name = "writeBehind={0}")
+    @ValueSource(booleans = { false, true })
+    void concurrentCompareAndSetIncrementsAreNotLost(boolean writeBehind) throws Exception {
+        try (KvFixture fixture = new KvFixture(writeBehind, DeleteMode.PHYSICAL)) {
+            KvService kv = fixture.kvService;
+            kv.upsert(COLLECTION, "counter", "0");
+            ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+            try {
+                List<Future<Integer>> workers = new ArrayList<>();
+                for (int t = 0; t < THREADS; t++) {
+                    workers.add(pool.submit(() -> increment(kv)));
+                }
+                for (Future<Integer> worker : workers) {
+                    worker.get(60, TimeUnit.SECONDS);
+                }
+            } finally {
+                pool.shutdownNow();
+            }
+
+            assertEquals(String.valueOf(THREADS * INCREMENTS), kv.get(COLLECTION, "counter"));
+            fixture.syncService.flush();
+            assertEquals(String.valueOf(THREADS * INCREMENTS), kv.get(COLLECTION, "counter"));
+        }
+    }
+
+    private static int increment(KvService kv) {
+        int conflicts = 0;
+        for (int done = 0; done < INCREMENTS;) {
+            VersionedValue current = kv.getVersioned(COLLECTION, "counter");
+            try {
+                kv.upsert(COLLECTION, "counter", String.valueOf(Integer.parseInt(current.value()) + 1),
+                        current.version());
+                done++;
+            } catch (PreconditionFailedException ex) {
+                conflicts++;
+            }
+        }
+        return conflicts;
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.sheetkv.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Base64;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.sheetkv.exception.BadRequestException;
+
+class PageCursorTest {
+
+    @Test
+    void encodesToUrlSafeTextAndDecodesBack() {
+        PageCursor cursor = new PageCursor(42L, 7, 1_234, "key/with+odd=chars-ü");
+
+        String encoded = cursor.encode();
+
+        assertTrue(encoded.matches("[A-Za-z0-9_-]+"), encoded);
+        assertEquals(cursor, PageCursor.decode(encoded));
+    }
+
+    @Test
+    void rejectsTextThatIsNotACursor() {
+        assertThrows(BadRequestException.class, () -> PageCursor.decode("not a cursor!"));
+        assertThrows(BadRequestException.class, () -> PageCursor.decode(""));
+    }
+
+    @Test
+    void rejectsTruncatedOrExtendedCursors() {
+        byte[] bytes = Base64.getUrlDecoder().decode(new PageCursor(1L, 2, 3, "id").encode());
+        byte[] truncated = Arrays.copyOf(bytes, bytes.length - 1);
+        byte[] extended = Arrays.copyOf(bytes, bytes.length + 1);
+
+        assertThrows(BadRequestException.class, () -> PageCursor.decode(encode(truncated)));
+        assertThrows(BadRequestException.class, () -> PageCursor.decode(encode(extended)));
+    }
+
+    @Test
+    void rejectsUnknownVersionsAndNegativePositions() {
+        byte[] bytes = Base64.getUrlDecoder().decode(new PageCursor(1L, 2, 3, "id").encode());
+        bytes[0] = 9;
+
+        assertThrows(BadRequestException.class, () -> PageCursor.decode(encode(bytes)));
+        assertThrows(BadRequestException.class, () -> PageCursor.decode(new PageCursor(1L, -1, 3, "id").encode()));
+        assertThrows(BadRequestException.class, () -> PageCursor.decode(new PageCursor(1L, 2, -3, "id").encode()));
+    }
+
+    private static String encode(byte[] bytes) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.sheetkv.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.sheetkv.config.DeleteProperties.DeleteMode;
+
+class RowAllocatorTest {
+    private static final String COLLECTION = KvFixture.COLLECTION;
+
+    @Test
+    void freeRowsFollowPhysicalDeletes() {
+        try (KvFixture fixture = new KvFixture(false, DeleteMode.PHYSICAL)) {
+            KvService kv = fixture.kvService;
+            RowAllocator rows = fixture.rowAllocator;
+            kv.upsert(COLLECTION, "a", "1");
+            kv.upsert(COLLECTION, "b", "2");
+            kv.upsert(COLLECTION, "c", "3");
+
+            // A create that fails after a later one took the next row leaves its row free.
+            int[] failed = rows.allocate(COLLECTION, 1);
+            kv.upsert(COLLECTION, "d", "4");
+            rows.rollback(COLLECTION, failed);
+            assertEquals(List.of(4), rows.freeRows(COLLECTION));
+
+            kv.delete(COLLECTION, "a");
+            assertEquals(List.of(3), rows.freeRows(COLLECTION));
+            assertEquals(5, rows.trackedNextRow(COLLECTION));
+
+            kv.upsert(COLLECTION, "e", "5");
+            assertEquals("4", kv.get(COLLECTION, "d"));
+            assertEquals("5", kv.get(COLLECTION, "e"));
+            fixture.syncService.flush();
+            assertEquals(List.of("b", "c", "e", "d"), kv.listKeys(COLLECTION, 10, null).items());
+            assertEquals("4", kv.get(COLLECTION, "d"));
+        }
+    }
+
+    @Test
+    void releaseDropsDeletedFreeRowsAndShiftsLaterOnes() {
+        try (KvFixture fixture = new KvFixture()) {
+            RowAllocator rows = fixture.rowAllocator;
+            rows.restore(COLLECTION, 10, List.of(2, 5, 8));
+
+            rows.release(COLLECTION, List.of(3, 5, 6));
+
+            assertEquals(List.of(2, 5), rows.freeRows(COLLECTION));
+            assertEquals(7, rows.trackedNextRow(COLLECTION));
+        }
+    }
+}
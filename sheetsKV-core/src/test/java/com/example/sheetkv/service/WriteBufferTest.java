@@ -0,0 +1,142 @@
+package com.example.sheetkv.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.example.sheetkv.adapter.CellRange;
+import com.example.sheetkv.adapter.LocalSheetBackend;
+import com.example.sheetkv.adapter.QuotaScheduler;
+import com.example.sheetkv.adapter.SheetRow;
+import com.example.sheetkv.config.CacheProperties;
+import com.example.sheetkv.config.IndexProperties;
+import com.example.sheetkv.config.LocalBackendProperties;
+import com.example.sheetkv.config.QuotaProperties;
+import com.example.sheetkv.config.RowTrackingProperties;
+import com.example.sheetkv.config.WriteBehindProperties;
+import com.example.sheetkv.exception.BackendException;
+import com.example.sheetkv.exception.BadRequestException;
+import com.example.sheetkv.model.KeyValueEntry;
+
+/** Failure handling and bounds of the write-behind buffer, against the local backend. */
+class WriteBufferTest {
+    private static final String COLLECTION = "test";
+    private static final String BAD = "bad";
+
+    private final LocalBackendProperties backendProperties = new LocalBackendProperties();
+    private final WriteBehindProperties properties = new WriteBehindProperties();
+    private LocalSheetBackend backend;
+    private IndexStore indexStore;
+    private WriteBuffer writeBuffer;
+
+    @BeforeEach
+    void setUp() {
+        QuotaProperties quotaProperties = new QuotaProperties();
+        quotaProperties.setEnabled(false);
+        // Like Sheets, refuses a whole batch when one of its values is invalid.
+        backend = new LocalSheetBackend(backendProperties, new QuotaScheduler(quotaProperties)) {
+            @Override
+            public void batchUpdateValues(List<CellRange> data) {
+                if (data.stream().anyMatch(range -> range.values().stream().anyMatch(row -> row.contains(BAD)))) {
+                    throw new BadRequestException("Invalid value");
+                }
+                super.batchUpdateValues(data);
+            }
+        };
+        indexStore = new IndexStore(new IndexProperties());
+        RowAllocator rowAllocator = new RowAllocator(backend, new RowTrackingProperties());
+        properties.setEnabled(true);
+        properties.setFlushInterval(Duration.ofHours(1));
+        properties.setMaxAttempts(3);
+        properties.setMaxPending(3);
+        writeBuffer = new WriteBuffer(backend, indexStore, rowAllocator, new CollectionLocks(), properties);
+        new CollectionsService(backend, indexStore, writeBuffer, new ValueCache(new CacheProperties()), rowAllocator)
+                .create(COLLECTION);
+    }
+
+    @AfterEach
+    void tearDown() {
+        backendProperties.setErrorRate(0);
+        writeBuffer.shutdown();
+    }
+
+    @Test
+    void rejectedWriteIsDroppedAndTheRestOfItsBatchIsWritten() {
+        CompletableFuture<Void> a = submit("a", "1");
+        CompletableFuture<Void> b = submit("b", BAD);
+        CompletableFuture<Void> c = submit("c", "3");
+
+        assertEquals(2, writeBuffer.drain());
+
+        assertTrue(a.isDone() && !a.isCompletedExceptionally());
+        assertTrue(c.isDone() && !c.isCompletedExceptionally());
+        assertEquals(BadRequestException.class, failure(b).getClass());
+        assertNull(writeBuffer.lookup(COLLECTION, "b"));
+        assertNull(indexStore.getRow(COLLECTION, "b"));
+        assertEquals(List.of("a", "c"), backend.readSheetRows(COLLECTION).stream().map(SheetRow::id).toList());
+        assertEquals(0, writeBuffer.drain());
+    }
+
+    @Test
+    void transientFailuresAreRetriedUntilAttemptsRunOut() {
+        backendProperties.setErrorRate(1.0);
+        CompletableFuture<Void> a = submit("a", "1");
+
+        for (int attempt = 1; attempt < properties.getMaxAttempts(); attempt++) {
+            assertEquals(0, writeBuffer.drain());
+            assertEquals("1", writeBuffer.lookup(COLLECTION, "a"));
+            assertFalse(a.isDone());
+        }
+        assertEquals(0, writeBuffer.drain());
+
+        assertNull(writeBuffer.lookup(COLLECTION, "a"));
+        assertEquals(BackendException.class, failure(a).getClass());
+        backendProperties.setErrorRate(0);
+        submit("a", "2");
+        assertEquals(1, writeBuffer.drain());
+        assertNotNull(indexStore.getRow(COLLECTION, "a"));
+    }
+
+    @Test
+    void fullBufferRejectsNewKeysButTakesWritesToBufferedOnes() {
+        submit("a", "1");
+        submit("b", "2");
+
+        assertThrows(BackendException.class, () -> writeBuffer.submitAll(COLLECTION,
+                List.of(entry("c", "3"), entry("d", "4")), Map.of()));
+        assertNull(writeBuffer.lookup(COLLECTION, "c"));
+        submit("a", "10");
+        submit("c", "3");
+        assertThrows(BackendException.class, () -> submit("d", "4"));
+
+        assertEquals(3, writeBuffer.drain());
+        submit("d", "4");
+        assertEquals("10", backend.readCell(COLLECTION, indexStore.getRow(COLLECTION, "a")));
+    }
+
+    private CompletableFuture<Void> submit(String id, String value) {
+        return writeBuffer.submit(COLLECTION, id, value, indexStore.newVersion());
+    }
+
+    private static KeyValueEntry entry(String id, String value) {
+        return new KeyValueEntry(id, value);
+    }
+
+    private static Throwable failure(CompletableFuture<Void> future) {
+        ExecutionException ex = assertThrows(ExecutionException.class, future::get);
+        return ex.getCause();
+    }
+}
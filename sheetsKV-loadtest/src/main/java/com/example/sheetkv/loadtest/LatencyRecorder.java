@@ -0,0 +1,103 @@
+package com.example.sheetkv.loadtest;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+import com.example.sheetkv.loadtest.LoadReport.OperationReport;
+
+/**
+ * Per-worker record of request latencies and outcomes, grouped by operation. Every latency is
+ * kept so percentiles are exact; workers never share a recorder, and recorders are merged once
+ * the run has finished.
+ */
+final class LatencyRecorder {
+    private final Map<String, Samples> operations = new HashMap<>();
+
+    void record(String operation, long latencyNanos, int status) {
+        operations.computeIfAbsent(operation, key -> new Samples()).add(latencyNanos, status);
+    }
+
+    static Map<String, OperationReport> summarize(Collection<LatencyRecorder> recorders, double seconds) {
+        Map<String, Samples> merged = new TreeMap<>();
+        Samples total = new Samples();
+        for (LatencyRecorder recorder : recorders) {
+            recorder.operations.forEach((operation, samples) -> {
+                merged.computeIfAbsent(operation, key -> new Samples()).addAll(samples);
+                total.addAll(samples);
+            });
+        }
+        Map<String, OperationReport> reports = new TreeMap<>();
+        merged.forEach((operation, samples) -> reports.put(operation, samples.report(seconds)));
+        reports.put(LoadReport.TOTAL, total.report(seconds));
+        return reports;
+    }
+
+    private static final class Samples {
+        private long[] latencies = new long[1024];
+        private int size;
+        private long ok;
+        private long clientErrors;
+        private long serverErrors;
+        private long failures;
+
+        void add(long latencyNanos, int status) {
+            if (size == latencies.length) {
+                latencies = Arrays.copyOf(latencies, size * 2);
+            }
+            latencies[size++] = latencyNanos;
+            if (status < 0) {
+                failures++;
+            } else if (status >= 500) {
+                serverErrors++;
+            } else if (status >= 400) {
+                clientErrors++;
+            } else {
+                ok++;
+            }
+        }
+
+        void addAll(Samples other) {
+            if (size + other.size > latencies.length) {
+                latencies = Arrays.copyOf(latencies, Math.max(latencies.length * 2, size + other.size));
+            }
+            System.arraycopy(other.latencies, 0, latencies, size, other.size);
+            size += other.size;
+            ok += other.ok;
+            clientErrors += other.clientErrors;
+            serverErrors += other.serverErrors;
+            failures += other.failures;
+        }
+
+        OperationReport report(double seconds) {
+            long[] sorted = Arrays.copyOf(latencies, size);
+            Arrays.sort(sorted);
+            double sum = 0;
+            for (long latency : sorted) {
+                sum += latency;
+            }
+            return new OperationReport(size, ok, clientErrors, serverErrors, failures,
+                    seconds > 0 ? size / seconds : 0,
+                    millis(size == 0 ? 0 : sum / size),
+                    millis(percentile(sorted, 0.50)),
+                    millis(percentile(sorted, 0.99)),
+                    millis(percentile(sorted, 0.999)),
+                    millis(size == 0 ? 0 : sorted[size - 1]));
+        }
+
+        private static long percentile(long[] sorted, double quantile) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(quantile * sorted.length) - 1;
+            return sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+        }
+
+        private static double millis(double nanos) {
+            return Math.round(nanos / TimeUnit.MILLISECONDS.toNanos(1) * 1000) / 1000.0;
+        }
+    }
+}
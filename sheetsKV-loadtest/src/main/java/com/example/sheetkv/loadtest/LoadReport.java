@@ -0,0 +1,17 @@
+package com.example.sheetkv.loadtest;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Result of one load run. Latencies are in milliseconds and measured from each request's
+ * scheduled start, so time spent queued behind a slow server is included.
+ */
+record LoadReport(Instant startedAt, String workload, double targetRate, int concurrency, double seconds,
+        long backendCalls, double backendCallsPerRequest, Map<String, OperationReport> operations) {
+    static final String TOTAL = "total";
+
+    record OperationReport(long count, long ok, long clientErrors, long serverErrors, long failures,
+            double throughput, double meanMs, double p50Ms, double p99Ms, double p999Ms, double maxMs) {
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.sheetkv.loadtest;
+
+/**
+ * One HTTP request of a workload. {@code operation} groups requests in the report; {@code body}
+ * is a JSON document or {@code null}.
+ */
+record LoadRequest(String operation, String method, String path, String body) {
+}
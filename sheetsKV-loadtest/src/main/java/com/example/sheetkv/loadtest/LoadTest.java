@@ -0,0 +1,264 @@
+package com.example.sheetkv.loadtest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import com.example.sheetkv.loadtest.LoadReport.OperationReport;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+/**
+ * Drives a running sheetsKV-service with a synthetic mix or a replayed request log at a target
+ * rate and reports latency percentiles, throughput and backend calls per request.
+ * Options are given as {@code --name=value}; run with {@code --help} for the list.
+ */
+public final class LoadTest {
+    private static final int SEED_BATCH = 500;
+    private static final String USAGE = """
+            Usage: java -jar loadtest.jar [--option=value ...]
+              --url=http://localhost:8080   service base URL
+              --mix=read-heavy              read-heavy, write-heavy, batch-heavy or op=weight,...
+              --replay=<file>               replay a JSONL request log instead of a mix
+              --rate=100                    target requests per second, 0 for closed loop
+              --concurrency=32              worker threads
+              --duration=60                 measured seconds
+              --warmup=10                   unmeasured seconds before the run
+              --collection=loadtest         collection created before the run and used by the mix
+              --keys=10000                  key space of the synthetic mix
+              --seed=true                   create the collection and write the mix's keys first
+              --valueSize=256               value length in characters
+              --batchSize=50                ids per batch request
+              --pageSize=100                page size of list requests
+              --settle=2                    seconds to wait for write-behind before reading stats
+              --out=<file>                  also write the report as JSON
+            """;
+
+    private final Map<String, String> options;
+    private final ObjectMapper mapper = new ObjectMapper().registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    private final HttpClient client;
+    private final String baseUrl;
+
+    private LoadTest(Map<String, String> options) {
+        this.options = options;
+        this.baseUrl = option("url", "http://localhost:8080").replaceAll("/+$", "");
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (arg.equals("--help") || !arg.startsWith("--")) {
+                System.out.print(USAGE);
+                System.exit(arg.equals("--help") ? 0 : 2);
+            }
+            int eq = arg.indexOf('=');
+            options.put(eq < 0 ? arg.substring(2) : arg.substring(2, eq), eq < 0 ? "true" : arg.substring(eq + 1));
+        }
+        new LoadTest(options).run();
+    }
+
+    private void run() throws Exception {
+        String replay = options.get("replay");
+        String collection = option("collection", "loadtest");
+        int keys = intOption("keys", 10_000);
+        String mix = option("mix", "read-heavy");
+        boolean seed = Boolean.parseBoolean(option("seed", "true"));
+        if (seed) {
+            createCollection(collection);
+        }
+        Workload workload;
+        if (replay != null) {
+            workload = new ReplayWorkload(Path.of(replay), mapper);
+        } else {
+            SyntheticWorkload synthetic = new SyntheticWorkload(mix, collection, keys, intOption("batchSize", 50),
+                    intOption("pageSize", 100), intOption("valueSize", 256));
+            if (seed) {
+                seed(synthetic, collection, keys);
+            }
+            workload = synthetic;
+        }
+        double rate = Double.parseDouble(option("rate", "100"));
+        int concurrency = intOption("concurrency", 32);
+        int warmup = intOption("warmup", 10);
+        if (warmup > 0) {
+            System.err.printf("warming up for %ds%n", warmup);
+            drive(workload, rate, concurrency, warmup);
+        }
+        long callsBefore = backendCalls();
+        Instant startedAt = Instant.now();
+        int duration = intOption("duration", 60);
+        System.err.printf("running %s at %s req/s with %d workers for %ds%n",
+                replay != null ? replay : mix, rate > 0 ? rate : "max", concurrency, duration);
+        long started = System.nanoTime();
+        List<LatencyRecorder> recorders = drive(workload, rate, concurrency, duration);
+        double seconds = (System.nanoTime() - started) / 1e9;
+        TimeUnit.SECONDS.sleep(intOption("settle", 2));
+        long calls = callsBefore < 0 ? -1 : backendCalls() - callsBefore;
+        Map<String, OperationReport> operations = LatencyRecorder.summarize(recorders, seconds);
+        long requests = operations.get(LoadReport.TOTAL).count();
+        LoadReport report = new LoadReport(startedAt, replay != null ? replay : mix, rate, concurrency, seconds,
+                calls, calls < 0 || requests == 0 ? -1 : Math.round(calls * 1000.0 / requests) / 1000.0, operations);
+        print(report);
+        String out = options.get("out");
+        if (out != null) {
+            mapper.writerWithDefaultPrettyPrinter().writeValue(Path.of(out).toFile(), report);
+        }
+    }
+
+    /**
+     * Runs the workload for the given number of seconds. With a target rate, request {@code n}
+     * is scheduled at {@code start + n / rate} and its latency is measured from that instant.
+     */
+    private List<LatencyRecorder> drive(Workload workload, double rate, int concurrency, int seconds)
+            throws InterruptedException {
+        long start = System.nanoTime();
+        long end = start + TimeUnit.SECONDS.toNanos(seconds);
+        double intervalNanos = rate > 0 ? 1e9 / rate : 0;
+        AtomicLong tickets = new AtomicLong();
+        List<LatencyRecorder> recorders = new ArrayList<>();
+        List<Thread> workers = new ArrayList<>();
+        for (int i = 0; i < concurrency; i++) {
+            LatencyRecorder recorder = new LatencyRecorder();
+            recorders.add(recorder);
+            Thread worker = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                while (true) {
+                    long scheduled = rate > 0 ? start + (long) (tickets.getAndIncrement() * intervalNanos)
+                            : System.nanoTime();
+                    if (scheduled >= end || System.nanoTime() >= end) {
+                        return;
+                    }
+                    long wait = scheduled - System.nanoTime();
+                    if (wait > 0) {
+                        LockSupport.parkNanos(wait);
+                    }
+                    LoadRequest request = workload.next(random);
+                    int status = send(request);
+                    recorder.record(request.operation(), System.nanoTime() - scheduled, status);
+                }
+            }, "loadtest-" + i);
+            workers.add(worker);
+            worker.start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        return recorders;
+    }
+
+    private int send(LoadRequest request) {
+        HttpRequest.BodyPublisher body = request.body() == null ? HttpRequest.BodyPublishers.noBody()
+                : HttpRequest.BodyPublishers.ofString(request.body());
+        HttpRequest httpRequest = HttpRequest.newBuilder(URI.create(baseUrl + request.path()))
+                .timeout(Duration.ofSeconds(60))
+                .header("Content-Type", "application/json")
+                .method(request.method(), body)
+                .build();
+        try {
+            return client.send(httpRequest, HttpResponse.BodyHandlers.discarding()).statusCode();
+        } catch (IOException ex) {
+            return -1;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return -1;
+        }
+    }
+
+    private void createCollection(String collection) {
+        int status = send(new LoadRequest("seed", "POST", "/v1/collections", "{\"name\":\"" + collection + "\"}"));
+        if (status < 0 || status >= 500) {
+            throw new IllegalStateException("Could not create collection " + collection + ", status " + status);
+        }
+    }
+
+    private void seed(SyntheticWorkload workload, String collection, int keys) {
+        System.err.printf("seeding %d keys into %s%n", keys, collection);
+        for (int from = 0; from < keys; from += SEED_BATCH) {
+            StringBuilder body = new StringBuilder("{\"items\":[");
+            for (int i = from; i < Math.min(keys, from + SEED_BATCH); i++) {
+                body.append(i == from ? "" : ",").append("{\"id\":\"").append(SyntheticWorkload.key(i))
+                        .append("\",\"value\":\"").append(workload.value(i)).append("\"}");
+            }
+            body.append("]}");
+            int status = send(new LoadRequest("seed", "POST", "/v1/collections/" + collection + "/batchUpsert",
+                    body.toString()));
+            if (status < 200 || status >= 300) {
+                throw new IllegalStateException("Seeding failed with status " + status);
+            }
+        }
+    }
+
+    /** Sheets calls made by the service so far, from {@code /v1/stats/quota}, or -1. */
+    private long backendCalls() {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/v1/stats/quota"))
+                .timeout(Duration.ofSeconds(10))
+                .GET()
+                .build();
+        try {
+            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 200) {
+                return -1;
+            }
+            JsonNode stats = mapper.readTree(response.body());
+            if (!stats.has("readCalls")) {
+                return -1;
+            }
+            return stats.get("readCalls").asLong() + stats.get("writeCalls").asLong();
+        } catch (IOException ex) {
+            return -1;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return -1;
+        }
+    }
+
+    private void print(LoadReport report) {
+        System.out.printf(Locale.ROOT, "%-44s %9s %9s %7s %7s %9s %9s %9s %9s %9s%n", "operation", "count", "req/s",
+                "4xx", "5xx/io", "mean ms", "p50 ms", "p99 ms", "p999 ms", "max ms");
+        List<String> names = new ArrayList<>(report.operations().keySet());
+        names.remove(LoadReport.TOTAL);
+        names.add(LoadReport.TOTAL);
+        for (String name : names) {
+            OperationReport op = report.operations().get(name);
+            System.out.printf(Locale.ROOT, "%-44s %9d %9.1f %7d %7d %9.2f %9.2f %9.2f %9.2f %9.2f%n", name,
+                    op.count(), op.throughput(), op.clientErrors(), op.serverErrors() + op.failures(), op.meanMs(),
+                    op.p50Ms(), op.p99Ms(), op.p999Ms(), op.maxMs());
+        }
+        if (report.backendCalls() >= 0) {
+            System.out.printf(Locale.ROOT, "backend calls: %d (%.3f per request)%n", report.backendCalls(),
+                    report.backendCallsPerRequest());
+        } else {
+            System.out.println("backend calls: unavailable");
+        }
+    }
+
+    private String option(String name, String defaultValue) {
+        return options.getOrDefault(name, defaultValue);
+    }
+
+    private int intOption(String name, int defaultValue) {
+        String value = options.get(name);
+        return value == null ? defaultValue : Integer.parseInt(value);
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.sheetkv.loadtest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Replays a request log in order, wrapping around at the end. The log has one JSON object per
+ * line with {@code method}, {@code path} (or a full URL) and an optional {@code body} (object or
+ * string) and {@code op} used to group the request in the report.
+ */
+final class ReplayWorkload implements Workload {
+    private final List<LoadRequest> requests;
+    private final AtomicLong position = new AtomicLong();
+
+    ReplayWorkload(Path log, ObjectMapper mapper) throws IOException {
+        List<LoadRequest> parsed = new ArrayList<>();
+        int lineNumber = 0;
+        for (String line : Files.readAllLines(log)) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            JsonNode node = mapper.readTree(line);
+            String method = node.path("method").asText("GET").toUpperCase();
+            String path = node.path("path").asText(node.path("url").asText(""));
+            if (path.isEmpty()) {
+                throw new IllegalArgumentException(log + ":" + lineNumber + " has no path");
+            }
+            if (path.startsWith("http://") || path.startsWith("https://")) {
+                URI uri = URI.create(path);
+                path = uri.getRawPath() + (uri.getRawQuery() == null ? "" : "?" + uri.getRawQuery());
+            }
+            JsonNode body = node.get("body");
+            String bodyText = body == null || body.isNull() ? null
+                    : body.isTextual() ? body.asText() : mapper.writeValueAsString(body);
+            String operation = node.hasNonNull("op") ? node.get("op").asText() : method + " " + route(path);
+            parsed.add(new LoadRequest(operation, method, path, bodyText));
+        }
+        if (parsed.isEmpty()) {
+            throw new IllegalArgumentException(log + " contains no requests");
+        }
+        this.requests = List.copyOf(parsed);
+    }
+
+    @Override
+    public LoadRequest next(ThreadLocalRandom random) {
+        return requests.get((int) (position.getAndIncrement() % requests.size()));
+    }
+
+    /** Replaces collection names and key ids so requests group by endpoint. */
+    static String route(String path) {
+        int query = path.indexOf('?');
+        String[] segments = (query < 0 ? path : path.substring(0, query)).split("/");
+        if (segments.length > 3 && "collections".equals(segments[2])) {
+            segments[3] = "{collection}";
+            if (segments.length > 5 && "keys".equals(segments[4])) {
+                segments[5] = "{id}";
+            }
+        }
+        return String.join("/", segments);
+    }
+}
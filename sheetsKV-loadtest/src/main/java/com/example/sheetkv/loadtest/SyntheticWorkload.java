@@ -0,0 +1,133 @@
+package com.example.sheetkv.loadtest;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Weighted mix of key-value operations over a fixed key space. Mixes are given by name
+ * ({@code read-heavy}, {@code write-heavy}, {@code batch-heavy}) or as {@code op=weight,...}.
+ */
+final class SyntheticWorkload implements Workload {
+    static final List<String> OPERATIONS = List.of("get", "put", "delete", "listKeys", "listEntries", "batchGet",
+            "batchUpsert", "batchDelete");
+
+    private static final Map<String, String> NAMED_MIXES = Map.of(
+            "read-heavy", "get=90,put=5,listKeys=3,batchGet=2",
+            "write-heavy", "get=20,put=70,delete=5,batchUpsert=5",
+            "batch-heavy", "get=5,put=5,batchGet=45,batchUpsert=45");
+    private static final String ALPHABET = "abcdefghijklmnopqrstuvwxyz0123456789";
+
+    private final String collection;
+    private final int keys;
+    private final int batchSize;
+    private final int pageSize;
+    private final String[] values;
+    private final String[] operations;
+    private final int[] cumulativeWeights;
+
+    SyntheticWorkload(String mix, String collection, int keys, int batchSize, int pageSize, int valueSize) {
+        this.collection = collection;
+        this.keys = Math.max(1, keys);
+        this.batchSize = Math.max(1, batchSize);
+        this.pageSize = Math.max(1, pageSize);
+        this.values = new String[64];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = randomValue(valueSize);
+        }
+        Map<String, Integer> weights = parseMix(mix);
+        this.operations = weights.keySet().toArray(String[]::new);
+        this.cumulativeWeights = new int[operations.length];
+        int total = 0;
+        for (int i = 0; i < operations.length; i++) {
+            total += weights.get(operations[i]);
+            cumulativeWeights[i] = total;
+        }
+    }
+
+    static String key(int index) {
+        return String.format(Locale.ROOT, "key-%08d", index);
+    }
+
+    String value(int index) {
+        return values[index % values.length];
+    }
+
+    @Override
+    public LoadRequest next(ThreadLocalRandom random) {
+        int pick = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        int slot = 0;
+        while (cumulativeWeights[slot] <= pick) {
+            slot++;
+        }
+        String operation = operations[slot];
+        String base = "/v1/collections/" + collection;
+        return switch (operation) {
+            case "get" -> new LoadRequest(operation, "GET", base + "/keys/" + randomKey(random), null);
+            case "put" -> new LoadRequest(operation, "PUT", base + "/keys/" + randomKey(random),
+                    "{\"value\":\"" + value(random.nextInt(values.length)) + "\"}");
+            case "delete" -> new LoadRequest(operation, "DELETE", base + "/keys/" + randomKey(random), null);
+            case "listKeys" -> new LoadRequest(operation, "GET",
+                    base + "/keys?limit=" + pageSize + "&cursor=" + random.nextInt(keys), null);
+            case "listEntries" -> new LoadRequest(operation, "GET",
+                    base + "/entries?limit=" + pageSize + "&cursor=" + random.nextInt(keys), null);
+            case "batchGet" -> new LoadRequest(operation, "POST", base + "/batchGet", idsBody(random));
+            case "batchDelete" -> new LoadRequest(operation, "POST", base + "/batchDelete", idsBody(random));
+            case "batchUpsert" -> new LoadRequest(operation, "POST", base + "/batchUpsert", itemsBody(random));
+            default -> throw new IllegalStateException("Unknown operation " + operation);
+        };
+    }
+
+    private String randomKey(ThreadLocalRandom random) {
+        return key(random.nextInt(keys));
+    }
+
+    private String idsBody(ThreadLocalRandom random) {
+        StringBuilder body = new StringBuilder("{\"ids\":[");
+        for (int i = 0; i < batchSize; i++) {
+            body.append(i == 0 ? "" : ",").append('"').append(randomKey(random)).append('"');
+        }
+        return body.append("]}").toString();
+    }
+
+    private String itemsBody(ThreadLocalRandom random) {
+        StringBuilder body = new StringBuilder("{\"items\":[");
+        for (int i = 0; i < batchSize; i++) {
+            body.append(i == 0 ? "" : ",")
+                    .append("{\"id\":\"").append(randomKey(random))
+                    .append("\",\"value\":\"").append(value(random.nextInt(values.length))).append("\"}");
+        }
+        return body.append("]}").toString();
+    }
+
+    private static Map<String, Integer> parseMix(String mix) {
+        String spec = NAMED_MIXES.getOrDefault(mix, mix);
+        Map<String, Integer> weights = new LinkedHashMap<>();
+        for (String part : spec.split(",")) {
+            String[] pair = part.trim().split("=");
+            if (pair.length != 2 || !OPERATIONS.contains(pair[0])) {
+                throw new IllegalArgumentException("Invalid mix entry '" + part + "', expected one of "
+                        + NAMED_MIXES.keySet() + " or op=weight with op in " + OPERATIONS);
+            }
+            int weight = Integer.parseInt(pair[1]);
+            if (weight > 0) {
+                weights.put(pair[0], weight);
+            }
+        }
+        if (weights.isEmpty()) {
+            throw new IllegalArgumentException("Mix '" + mix + "' has no positive weights");
+        }
+        return weights;
+    }
+
+    private static String randomValue(int size) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        StringBuilder value = new StringBuilder(size);
+        for (int i = 0; i < size; i++) {
+            value.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+        }
+        return value.toString();
+    }
+}
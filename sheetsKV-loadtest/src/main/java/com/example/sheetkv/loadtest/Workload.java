@@ -0,0 +1,11 @@
+package com.example.sheetkv.loadtest;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Source of requests for the load generator. Implementations are called concurrently from all
+ * worker threads.
+ */
+interface Workload {
+    LoadRequest next(ThreadLocalRandom random);
+}
@@ -7,6 +7,7 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.context.event.EventListener;
 
+import com.example.sheetkv.service.IndexSnapshotService;
 import com.example.sheetkv.service.SyncService;
 
 @SpringBootApplication
@@ -14,9 +15,11 @@ public class SheetKvApplication {
     private static final Logger logger = LoggerFactory.getLogger(SheetKvApplication.class);
 
     private final SyncService syncService;
+    private final IndexSnapshotService snapshotService;
 
-    public SheetKvApplication(SyncService syncService) {
+    public SheetKvApplication(SyncService syncService, IndexSnapshotService snapshotService) {
         this.syncService = syncService;
+        this.snapshotService = snapshotService;
     }
 
     public static void main(String[] args) {
@@ -26,9 +29,13 @@ public class SheetKvApplication {
     @EventListener(ApplicationReadyEvent.class)
     public void onReady() {
         try {
+            if (snapshotService.restore()) {
+                return;
+            }
             var result = syncService.flush();
             logger.info("flush.startup collections={} totalKeys={} duplicates={}",
                     result.collections(), result.totalKeys(), result.duplicates());
+            snapshotService.save();
         } catch (Exception ex) {
             logger.error("flush.startup failed", ex);
         }
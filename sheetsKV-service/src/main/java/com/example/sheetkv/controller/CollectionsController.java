@@ -12,9 +12,11 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.example.sheetkv.model.CompactionResult;
 import com.example.sheetkv.model.CreateCollectionRequest;
 import com.example.sheetkv.model.RenameCollectionRequest;
 import com.example.sheetkv.service.CollectionsService;
+import com.example.sheetkv.service.CompactionService;
 
 import io.swagger.v3.oas.annotations.Operation;
 import jakarta.validation.Valid;
@@ -23,9 +25,11 @@ import jakarta.validation.Valid;
 @RequestMapping("/v1/collections")
 public class CollectionsController {
     private final CollectionsService collectionsService;
+    private final CompactionService compactionService;
 
-    public CollectionsController(CollectionsService collectionsService) {
+    public CollectionsController(CollectionsService collectionsService, CompactionService compactionService) {
         this.collectionsService = collectionsService;
+        this.compactionService = compactionService;
     }
 
     @Operation(summary = "List collections")
@@ -55,4 +59,10 @@ public class CollectionsController {
         collectionsService.rename(collection, request.newName());
         return ResponseEntity.noContent().build();
     }
+
+    @Operation(summary = "Compact collection")
+    @PostMapping("/{collection}/compact")
+    public ResponseEntity<CompactionResult> compact(@PathVariable String collection) {
+        return ResponseEntity.ok(compactionService.compact(collection));
+    }
 }
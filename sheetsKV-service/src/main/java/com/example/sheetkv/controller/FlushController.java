@@ -3,6 +3,7 @@ package com.example.sheetkv.controller;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.example.sheetkv.model.FlushResult;
@@ -21,7 +22,10 @@ public class FlushController {
 
     @Operation(summary = "Force reindex")
     @PostMapping("/flush")
-    public ResponseEntity<FlushResult> flush() {
+    public ResponseEntity<FlushResult> flush(@RequestParam(required = false) String collection) {
+        if (collection != null && !collection.isBlank()) {
+            return ResponseEntity.ok(syncService.flush(collection));
+        }
         return ResponseEntity.ok(syncService.flush());
     }
 }
@@ -1,5 +1,13 @@
 package com.example.sheetkv.controller;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -8,20 +16,26 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.example.sheetkv.exception.BadRequestException;
+import com.example.sheetkv.exception.PreconditionFailedException;
 import com.example.sheetkv.model.BatchDeleteRequest;
 import com.example.sheetkv.model.BatchDeleteResult;
 import com.example.sheetkv.model.BatchGetRequest;
 import com.example.sheetkv.model.BatchGetResult;
+import com.example.sheetkv.model.BatchUpsertItem;
 import com.example.sheetkv.model.BatchUpsertRequest;
 import com.example.sheetkv.model.BatchUpsertResult;
 import com.example.sheetkv.model.KeyValueEntry;
 import com.example.sheetkv.model.PageResult;
+import com.example.sheetkv.model.TxnRequest;
+import com.example.sheetkv.model.TxnResult;
 import com.example.sheetkv.model.ValueRequest;
+import com.example.sheetkv.service.AsyncKvService;
 import com.example.sheetkv.service.KvService;
 
 import io.swagger.v3.oas.annotations.Operation;
@@ -33,86 +47,163 @@ import jakarta.validation.constraints.Min;
 @RequestMapping("/v1/collections/{collection}")
 @Validated
 public class KvController {
-    private final KvService kvService;
+    private final AsyncKvService asyncKvService;
 
-    public KvController(KvService kvService) {
-        this.kvService = kvService;
+    public KvController(AsyncKvService asyncKvService) {
+        this.asyncKvService = asyncKvService;
     }
 
     @Operation(summary = "Get value")
     @GetMapping("/keys/{id}")
-    public ResponseEntity<KeyValueEntry> get(@PathVariable String collection, @PathVariable String id) {
-        String value = kvService.get(collection, id);
-        return ResponseEntity.ok(new KeyValueEntry(id, value));
+    public CompletableFuture<ResponseEntity<KeyValueEntry>> get(@PathVariable String collection,
+            @PathVariable String id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        if (ifMatch == null && ifNoneMatch == null) {
+            return asyncKvService.get(collection, id).thenApply(value -> withVersion(ResponseEntity.ok(), value.version())
+                    .body(new KeyValueEntry(id, value.value())));
+        }
+        // Preconditions are decided from the index alone; a 304 never reads the value.
+        return asyncKvService.getVersion(collection, id).thenCompose(version -> {
+            if (ifMatch != null && !matches(ifMatch, version, false)) {
+                throw new PreconditionFailedException("Version mismatch for id: " + id);
+            }
+            if (ifNoneMatch != null && matches(ifNoneMatch, version, true)) {
+                return CompletableFuture.completedFuture(
+                        withVersion(ResponseEntity.status(HttpStatus.NOT_MODIFIED), version).<KeyValueEntry>build());
+            }
+            return asyncKvService.get(collection, id).thenApply(value -> withVersion(ResponseEntity.ok(), value.version())
+                    .body(new KeyValueEntry(id, value.value())));
+        });
     }
 
     @Operation(summary = "Upsert value")
     @PutMapping("/keys/{id}")
-    public ResponseEntity<Void> upsert(@PathVariable String collection,
+    public CompletableFuture<ResponseEntity<Void>> upsert(@PathVariable String collection,
             @PathVariable String id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
             @Valid @RequestBody ValueRequest request) {
-        kvService.upsert(collection, id, request.value());
-        return ResponseEntity.noContent().build();
+        Long expectedVersion;
+        if (ifMatch != null && ifNoneMatch != null) {
+            throw new BadRequestException("Use either If-Match or If-None-Match");
+        } else if (ifNoneMatch != null) {
+            if (!ifNoneMatch.trim().equals("*")) {
+                throw new BadRequestException("If-None-Match on PUT only supports *");
+            }
+            expectedVersion = KvService.ABSENT;
+        } else {
+            expectedVersion = ifMatch == null ? null : expectedVersion(ifMatch);
+        }
+        return asyncKvService.upsert(collection, id, request.value(), expectedVersion)
+                .thenApply(version -> withVersion(ResponseEntity.status(HttpStatus.NO_CONTENT), version).<Void>build());
     }
 
     @Operation(summary = "Delete value")
     @DeleteMapping("/keys/{id}")
-    public ResponseEntity<Void> delete(@PathVariable String collection, @PathVariable String id) {
-        kvService.delete(collection, id);
-        return ResponseEntity.noContent().build();
+    public CompletableFuture<ResponseEntity<Void>> delete(@PathVariable String collection, @PathVariable String id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return asyncKvService.delete(collection, id, ifMatch == null ? null : expectedVersion(ifMatch))
+                .thenApply(done -> ResponseEntity.noContent().build());
     }
 
     @Operation(summary = "List keys")
     @GetMapping("/keys")
-    public ResponseEntity<PageResult<String>> listKeys(@PathVariable String collection,
+    public CompletableFuture<ResponseEntity<PageResult<String>>> listKeys(@PathVariable String collection,
             @RequestParam(defaultValue = "100") @Min(1) @Max(1000) int limit,
             @RequestParam(required = false) String cursor) {
-        int offset = parseCursor(cursor);
-        return ResponseEntity.ok(kvService.listKeys(collection, limit, offset));
+        return asyncKvService.listKeys(collection, limit, cursor).thenApply(ResponseEntity::ok);
     }
 
     @Operation(summary = "List entries")
     @GetMapping("/entries")
-    public ResponseEntity<PageResult<KeyValueEntry>> listEntries(@PathVariable String collection,
+    public CompletableFuture<ResponseEntity<PageResult<KeyValueEntry>>> listEntries(@PathVariable String collection,
             @RequestParam(defaultValue = "100") @Min(1) @Max(1000) int limit,
             @RequestParam(required = false) String cursor) {
-        int offset = parseCursor(cursor);
-        return ResponseEntity.ok(kvService.listEntries(collection, limit, offset));
+        return asyncKvService.listEntries(collection, limit, cursor).thenApply(ResponseEntity::ok);
     }
 
     @Operation(summary = "Batch get")
     @PostMapping("/batchGet")
-    public ResponseEntity<BatchGetResult> batchGet(@PathVariable String collection,
+    public CompletableFuture<ResponseEntity<BatchGetResult>> batchGet(@PathVariable String collection,
             @Valid @RequestBody BatchGetRequest request) {
-        return ResponseEntity.ok(kvService.batchGet(collection, request.ids()));
+        return asyncKvService.batchGet(collection, request.ids()).thenApply(ResponseEntity::ok);
     }
 
     @Operation(summary = "Batch upsert")
     @PostMapping("/batchUpsert")
-    public ResponseEntity<BatchUpsertResult> batchUpsert(@PathVariable String collection,
+    public CompletableFuture<ResponseEntity<BatchUpsertResult>> batchUpsert(@PathVariable String collection,
             @Valid @RequestBody BatchUpsertRequest request) {
-        return ResponseEntity.ok(kvService.batchUpsert(collection, request.items()));
+        List<KeyValueEntry> items = new ArrayList<>(request.items().size());
+        Map<String, Long> expectedVersions = new HashMap<>();
+        for (BatchUpsertItem item : request.items()) {
+            items.add(new KeyValueEntry(item.id(), item.value()));
+            if (item.expectedVersion() != null) {
+                expectedVersions.put(item.id(), item.expectedVersion());
+            }
+        }
+        return asyncKvService.batchUpsert(collection, items, expectedVersions).thenApply(ResponseEntity::ok);
     }
 
     @Operation(summary = "Batch delete")
     @PostMapping("/batchDelete")
-    public ResponseEntity<BatchDeleteResult> batchDelete(@PathVariable String collection,
+    public CompletableFuture<ResponseEntity<BatchDeleteResult>> batchDelete(@PathVariable String collection,
             @Valid @RequestBody BatchDeleteRequest request) {
-        return ResponseEntity.ok(kvService.batchDelete(collection, request.ids()));
+        return asyncKvService.batchDelete(collection, request.ids()).thenApply(ResponseEntity::ok);
+    }
+
+    @Operation(summary = "Atomic transaction of puts, deletes and version checks")
+    @PostMapping("/txn")
+    public CompletableFuture<ResponseEntity<TxnResult>> transact(@PathVariable String collection,
+            @Valid @RequestBody TxnRequest request) {
+        return asyncKvService.transact(collection, request.operations()).thenApply(ResponseEntity::ok);
+    }
+
+    private static ResponseEntity.BodyBuilder withVersion(ResponseEntity.BodyBuilder builder, Long version) {
+        return version == null ? builder : builder.eTag(Long.toString(version));
     }
 
-    private int parseCursor(String cursor) {
-        if (cursor == null || cursor.isBlank()) {
-            return 0;
+    /** Expected version named by an If-Match header: {@code *} or one strong entity tag. */
+    private static long expectedVersion(String ifMatch) {
+        String tag = ifMatch.trim();
+        if (tag.equals("*")) {
+            return KvService.ANY;
         }
-        try {
-            int value = Integer.parseInt(cursor);
-            if (value < 0) {
-                throw new BadRequestException("cursor must be >= 0");
+        if (tag.contains(",")) {
+            throw new BadRequestException("If-Match must name a single version");
+        }
+        Long version = parseTag(tag, false);
+        // Tags that cannot be a version never match, including "0", which would otherwise mean ABSENT.
+        return version == null || version <= 0 ? Long.MIN_VALUE : version;
+    }
+
+    private static boolean matches(String header, Long version, boolean weak) {
+        if (version == null) {
+            return false;
+        }
+        for (String tag : header.split(",")) {
+            String trimmed = tag.trim();
+            if (trimmed.equals("*") || version.equals(parseTag(trimmed, weak))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Long parseTag(String tag, boolean weak) {
+        if (tag.startsWith("W/")) {
+            if (!weak) {
+                return null;
             }
-            return value;
+            tag = tag.substring(2);
+        }
+        if (tag.length() < 2 || tag.charAt(0) != '"' || tag.charAt(tag.length() - 1) != '"') {
+            return null;
+        }
+        try {
+            return Long.parseLong(tag.substring(1, tag.length() - 1));
         } catch (NumberFormatException ex) {
-            throw new BadRequestException("Invalid cursor");
+            return null;
         }
     }
 }
@@ -0,0 +1,71 @@
+package com.example.sheetkv.controller;
+
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.example.sheetkv.adapter.QuotaScheduler;
+import com.example.sheetkv.model.CacheStats;
+import com.example.sheetkv.model.ImportStatus;
+import com.example.sheetkv.model.QuotaStats;
+import com.example.sheetkv.model.ReadStats;
+import com.example.sheetkv.model.WriteBufferStats;
+import com.example.sheetkv.service.CellReader;
+import com.example.sheetkv.service.TransferService;
+import com.example.sheetkv.service.ValueCache;
+import com.example.sheetkv.service.WriteBuffer;
+
+import io.swagger.v3.oas.annotations.Operation;
+
+@RestController
+@RequestMapping("/v1/stats")
+public class StatsController {
+    private final WriteBuffer writeBuffer;
+    private final ValueCache valueCache;
+    private final QuotaScheduler quotaScheduler;
+    private final CellReader cellReader;
+    private final TransferService transferService;
+
+    public StatsController(WriteBuffer writeBuffer, ValueCache valueCache, QuotaScheduler quotaScheduler,
+            CellReader cellReader, TransferService transferService) {
+        this.writeBuffer = writeBuffer;
+        this.valueCache = valueCache;
+        this.quotaScheduler = quotaScheduler;
+        this.cellReader = cellReader;
+        this.transferService = transferService;
+    }
+
+    @Operation(summary = "Write-behind flush statistics per collection")
+    @GetMapping("/writes")
+    public ResponseEntity<Map<String, WriteBufferStats>> writes() {
+        return ResponseEntity.ok(writeBuffer.getStats());
+    }
+
+    @Operation(summary = "Value cache statistics")
+    @GetMapping("/cache")
+    public ResponseEntity<CacheStats> cache() {
+        return ResponseEntity.ok(valueCache.getStats());
+    }
+
+    @Operation(summary = "Coalesced and batched single-key read statistics")
+    @GetMapping("/reads")
+    public ResponseEntity<ReadStats> reads() {
+        return ResponseEntity.ok(cellReader.getStats());
+    }
+
+    @Operation(summary = "Google Sheets quota scheduler statistics")
+    @GetMapping("/quota")
+    public ResponseEntity<QuotaStats> quota() {
+        return ResponseEntity.ok(quotaScheduler.getStats());
+    }
+
+    @Operation(summary = "Progress of running NDJSON imports")
+    @GetMapping("/imports")
+    public ResponseEntity<List<ImportStatus>> imports() {
+        return ResponseEntity.ok(transferService.getActiveImports());
+    }
+}
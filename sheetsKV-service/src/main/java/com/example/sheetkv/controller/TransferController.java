@@ -0,0 +1,110 @@
+package com.example.sheetkv.controller;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+
+import com.example.sheetkv.config.TransferProperties;
+import com.example.sheetkv.model.DuplicatePolicy;
+import com.example.sheetkv.model.ImportResult;
+import com.example.sheetkv.service.AsyncKvService;
+import com.example.sheetkv.service.TransferService;
+
+import io.swagger.v3.oas.annotations.Operation;
+
+@RestController
+@RequestMapping("/v1/collections/{collection}")
+public class TransferController {
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    private final TransferService transferService;
+    private final AsyncKvService asyncKvService;
+    private final long exportTimeoutMillis;
+
+    public TransferController(TransferService transferService, AsyncKvService asyncKvService,
+            TransferProperties properties) {
+        this.transferService = transferService;
+        this.asyncKvService = asyncKvService;
+        this.exportTimeoutMillis = properties.getExportTimeout().toMillis();
+    }
+
+    /**
+     * Streams through an emitter so the export gets its own timeout instead of the short one
+     * that applies to every other asynchronous request.
+     */
+    @Operation(summary = "Export collection as NDJSON")
+    @GetMapping("/export")
+    public ResponseEntity<ResponseBodyEmitter> export(@PathVariable String collection) {
+        transferService.requireCollection(collection);
+        ResponseBodyEmitter emitter = new ResponseBodyEmitter(exportTimeoutMillis);
+        asyncKvService.run(() -> {
+            try (OutputStream out = new EmitterOutputStream(emitter)) {
+                transferService.export(collection, out);
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }).whenComplete((ignored, ex) -> {
+            if (ex == null) {
+                emitter.complete();
+            } else {
+                emitter.completeWithError(ex);
+            }
+        });
+        return ResponseEntity.ok().contentType(NDJSON).body(emitter);
+    }
+
+    @Operation(summary = "Import NDJSON into collection")
+    @PostMapping(path = "/import", consumes = { "application/x-ndjson", MediaType.APPLICATION_JSON_VALUE,
+            MediaType.TEXT_PLAIN_VALUE, MediaType.APPLICATION_OCTET_STREAM_VALUE })
+    public ResponseEntity<ImportResult> importEntries(@PathVariable String collection,
+            @RequestParam(defaultValue = "LAST_WINS") DuplicatePolicy onDuplicate,
+            @RequestParam(defaultValue = "false") boolean skipExisting,
+            InputStream body) {
+        return ResponseEntity.ok(transferService.importEntries(collection, body, onDuplicate, skipExisting));
+    }
+
+    /** Buffers writes and sends them as one emitter chunk on every flush. */
+    private static final class EmitterOutputStream extends OutputStream {
+        private final ResponseBodyEmitter emitter;
+        private final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+
+        private EmitterOutputStream(ResponseBodyEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        @Override
+        public void write(int b) {
+            buffer.write(b);
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) {
+            buffer.write(bytes, offset, length);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (buffer.size() > 0) {
+                emitter.send(buffer.toByteArray(), NDJSON);
+                buffer.reset();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
+    }
+}
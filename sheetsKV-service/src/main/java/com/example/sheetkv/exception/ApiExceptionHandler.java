@@ -3,12 +3,15 @@ package com.example.sheetkv.exception;
 import java.time.Instant;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
 
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.context.request.async.AsyncRequestTimeoutException;
 
 @ControllerAdvice
 public class ApiExceptionHandler {
@@ -23,6 +26,25 @@ public class ApiExceptionHandler {
         return buildResponse(HttpStatus.BAD_REQUEST, "Validation failed");
     }
 
+    /** Failures of async operations arrive wrapped; answer with the status of the cause. */
+    @ExceptionHandler({ CompletionException.class, ExecutionException.class })
+    public ResponseEntity<Map<String, Object>> handleAsync(Exception ex) {
+        Throwable cause = ex;
+        while ((cause instanceof CompletionException || cause instanceof ExecutionException)
+                && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        if (cause instanceof ApiException apiException) {
+            return handleApiException(apiException);
+        }
+        return handleGeneric(ex);
+    }
+
+    @ExceptionHandler(AsyncRequestTimeoutException.class)
+    public ResponseEntity<Map<String, Object>> handleAsyncTimeout(AsyncRequestTimeoutException ex) {
+        return buildResponse(HttpStatus.SERVICE_UNAVAILABLE, "Request timed out");
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<Map<String, Object>> handleGeneric(Exception ex) {
         return buildResponse(HttpStatus.INTERNAL_SERVER_ERROR, "Unexpected error");
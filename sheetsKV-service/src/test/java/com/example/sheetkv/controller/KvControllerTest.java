@@ -0,0 +1,215 @@
+package com.example.sheetkv.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import com.example.sheetkv.adapter.CellRange;
+import com.example.sheetkv.adapter.LocalSheetBackend;
+import com.example.sheetkv.adapter.QuotaScheduler;
+import com.example.sheetkv.config.AsyncProperties;
+import com.example.sheetkv.config.CacheProperties;
+import com.example.sheetkv.config.DeleteProperties;
+import com.example.sheetkv.config.IndexProperties;
+import com.example.sheetkv.config.LocalBackendProperties;
+import com.example.sheetkv.config.QuotaProperties;
+import com.example.sheetkv.config.ReadProperties;
+import com.example.sheetkv.config.RowTrackingProperties;
+import com.example.sheetkv.config.WriteBehindProperties;
+import com.example.sheetkv.exception.ApiExceptionHandler;
+import com.example.sheetkv.service.AsyncKvService;
+import com.example.sheetkv.service.CellReader;
+import com.example.sheetkv.service.CollectionLocks;
+import com.example.sheetkv.service.CollectionsService;
+import com.example.sheetkv.service.IndexStore;
+import com.example.sheetkv.service.KeyLocks;
+import com.example.sheetkv.service.KvService;
+import com.example.sheetkv.service.RowAllocator;
+import com.example.sheetkv.service.ValueCache;
+import com.example.sheetkv.service.WriteBuffer;
+
+import io.micrometer.observation.ObservationRegistry;
+
+/** ETag and If-Match handling of the key endpoints, against the local backend. */
+class KvControllerTest {
+    private static final String KEY = "/v1/collections/test/keys/a";
+
+    private AsyncKvService asyncKvService;
+    private WriteBuffer writeBuffer;
+    private MockMvc mvc;
+    /** Runs once inside the next batch write, after the batch has left the buffer. */
+    private volatile Runnable duringBatchWrite;
+
+    @BeforeEach
+    void setUp() {
+        start(false);
+    }
+
+    private void start(boolean writeBehind) {
+        QuotaProperties quotaProperties = new QuotaProperties();
+        quotaProperties.setEnabled(false);
+        LocalSheetBackend backend = new LocalSheetBackend(new LocalBackendProperties(),
+                new QuotaScheduler(quotaProperties)) {
+            @Override
+            public void batchUpdateValues(List<CellRange> data) {
+                Runnable hook = duringBatchWrite;
+                duringBatchWrite = null;
+                if (hook != null) {
+                    hook.run();
+                }
+                super.batchUpdateValues(data);
+            }
+        };
+        IndexStore indexStore = new IndexStore(new IndexProperties());
+        RowAllocator rowAllocator = new RowAllocator(backend, new RowTrackingProperties());
+        CollectionLocks collectionLocks = new CollectionLocks();
+        WriteBehindProperties writeBehindProperties = new WriteBehindProperties();
+        writeBehindProperties.setEnabled(writeBehind);
+        writeBehindProperties.setFlushInterval(Duration.ofHours(1));
+        writeBuffer = new WriteBuffer(backend, indexStore, rowAllocator, collectionLocks, writeBehindProperties);
+        ValueCache valueCache = new ValueCache(new CacheProperties());
+        ReadProperties readProperties = new ReadProperties();
+        readProperties.setBatchWindow(Duration.ZERO);
+        KvService kvService = new KvService(backend, indexStore, writeBuffer, valueCache, rowAllocator,
+                collectionLocks, new DeleteProperties(), new CellReader(backend, readProperties), new KeyLocks());
+        new CollectionsService(backend, indexStore, writeBuffer, valueCache, rowAllocator).create("test");
+
+        asyncKvService = new AsyncKvService(kvService, new AsyncProperties(),
+                new StaticListableBeanFactory().getBeanProvider(ObservationRegistry.class));
+        mvc = MockMvcBuilders.standaloneSetup(new KvController(asyncKvService))
+                .setControllerAdvice(new ApiExceptionHandler())
+                .build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        asyncKvService.shutdown();
+        writeBuffer.shutdown();
+    }
+
+    @Test
+    void putReturnsTheETagThatGetReports() throws Exception {
+        MockHttpServletResponse created = send(put(KEY).content(value("one")).contentType(MediaType.APPLICATION_JSON));
+        MockHttpServletResponse read = send(get(KEY));
+
+        assertEquals(204, created.getStatus());
+        assertNotNull(created.getHeader(HttpHeaders.ETAG));
+        assertEquals(200, read.getStatus());
+        assertEquals(created.getHeader(HttpHeaders.ETAG), read.getHeader(HttpHeaders.ETAG));
+    }
+
+    @Test
+    void ifMatchWritesOnlyAgainstTheCurrentETag() throws Exception {
+        String first = putValue("one", null).getHeader(HttpHeaders.ETAG);
+
+        MockHttpServletResponse updated = putValue("two", first);
+        MockHttpServletResponse stale = putValue("three", first);
+
+        assertEquals(204, updated.getStatus());
+        assertNotEquals(first, updated.getHeader(HttpHeaders.ETAG));
+        assertEquals(412, stale.getStatus());
+        assertEquals(updated.getHeader(HttpHeaders.ETAG), send(get(KEY)).getHeader(HttpHeaders.ETAG));
+        assertEquals("{\"id\":\"a\",\"value\":\"two\"}", send(get(KEY)).getContentAsString());
+    }
+
+    @Test
+    void ifNoneMatchStarCreatesOnlyMissingKeys() throws Exception {
+        assertEquals(204, putIfAbsent("one").getStatus());
+        assertEquals(412, putIfAbsent("two").getStatus());
+    }
+
+    @Test
+    void ifMatchStarNeedsAnExistingKeyAndWeakOrListedTagsAreRefused() throws Exception {
+        assertEquals(412, putValue("one", "*").getStatus());
+        String tag = putValue("one", null).getHeader(HttpHeaders.ETAG);
+
+        assertEquals(412, putValue("two", "W/" + tag).getStatus());
+        assertEquals(400, putValue("two", tag + ", " + tag).getStatus());
+        assertEquals(204, putValue("two", "*").getStatus());
+    }
+
+    @Test
+    void conditionalGetAnswersNotModifiedOrPreconditionFailed() throws Exception {
+        String tag = putValue("one", null).getHeader(HttpHeaders.ETAG);
+
+        assertEquals(304, send(get(KEY).header(HttpHeaders.IF_NONE_MATCH, tag)).getStatus());
+        assertEquals(200, send(get(KEY).header(HttpHeaders.IF_MATCH, tag)).getStatus());
+        putValue("two", tag);
+        assertEquals(412, send(get(KEY).header(HttpHeaders.IF_MATCH, tag)).getStatus());
+    }
+
+    @Test
+    void deleteWithAStaleETagKeepsTheKey() throws Exception {
+        String first = putValue("one", null).getHeader(HttpHeaders.ETAG);
+        String second = putValue("two", first).getHeader(HttpHeaders.ETAG);
+
+        assertEquals(412, send(delete(KEY).header(HttpHeaders.IF_MATCH, first)).getStatus());
+        assertEquals(200, send(get(KEY)).getStatus());
+        assertEquals(204, send(delete(KEY).header(HttpHeaders.IF_MATCH, second)).getStatus());
+        assertEquals(404, send(get(KEY)).getStatus());
+    }
+
+    @Test
+    void bufferedUpdateDuringAnInFlightCreateMovesTheETag() throws Exception {
+        tearDown();
+        start(true);
+        String first = putValue("one", null).getHeader(HttpHeaders.ETAG);
+        String[] second = new String[1];
+        duringBatchWrite = () -> {
+            try {
+                second[0] = putValue("two", null).getHeader(HttpHeaders.ETAG);
+            } catch (Exception ex) {
+                throw new IllegalStateException(ex);
+            }
+        };
+        writeBuffer.drain();
+        writeBuffer.drain();
+
+        assertNotEquals(first, second[0]);
+        assertEquals(second[0], send(get(KEY)).getHeader(HttpHeaders.ETAG));
+        assertEquals(412, putValue("three", first).getStatus());
+        assertEquals(204, putValue("three", second[0]).getStatus());
+        assertEquals("{\"id\":\"a\",\"value\":\"three\"}", send(get(KEY)).getContentAsString());
+    }
+
+    private MockHttpServletResponse putValue(String value, String ifMatch) throws Exception {
+        MockHttpServletRequestBuilder request = put(KEY).content(value(value)).contentType(MediaType.APPLICATION_JSON);
+        return send(ifMatch == null ? request : request.header(HttpHeaders.IF_MATCH, ifMatch));
+    }
+
+    private MockHttpServletResponse putIfAbsent(String value) throws Exception {
+        return send(put(KEY).content(value(value)).contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.IF_NONE_MATCH, "*"));
+    }
+
+    private MockHttpServletResponse send(MockHttpServletRequestBuilder request) throws Exception {
+        MvcResult result = mvc.perform(request).andReturn();
+        if (result.getRequest().isAsyncStarted()) {
+            result = mvc.perform(asyncDispatch(result)).andReturn();
+        }
+        return result.getResponse();
+    }
+
+    private static String value(String value) {
+        return "{\"value\":\"" + value + "\"}";
+    }
+}